@@ -0,0 +1,66 @@
+package it.project.bench;
+
+import it.project.utils.ClassifierRegistry;
+import it.project.utils.CompressedIO;
+import it.project.utils.DetectWalkPass;
+import weka.classifiers.Classifier;
+import weka.core.Instances;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Dataset dei benchmark di valutazione: gli ARFF di training/testing in src/main/resources
+ * (OPENJPA, BOOKKEEPER) dell'ultima iterazione walk-forward, ridimensionati a un numero fisso di righe
+ * per misurare come cresce il costo con la dimensione del training set.
+ */
+public final class ArffFixtures {
+    private static final String RESOURCES = "src/main/resources/";
+
+    private ArffFixtures() {}
+
+    public static int lastIteration(String project) throws Exception {
+        return new DetectWalkPass(project).detectWalkPass();
+    }
+
+    /** kind = "training" | "testing"; class index sull'ultimo attributo, come in WekaClassifier. */
+    public static Instances load(String project, String kind, int iteration) throws Exception {
+        String baseName = project + "_" + kind + "_iter_" + iteration;
+        Instances data = CompressedIO.loadInstances(
+                Paths.get(RESOURCES, project.toLowerCase(), kind, "ARFF", baseName + ".arff").toFile());
+        data.setClassIndex(data.numAttributes() - 1);
+        return data;
+    }
+
+    /**
+     * {@code rows} righe estratte da {@code source} con seed fisso: un sottoinsieme casuale se il dataset
+     * è più grande, altrimenti tutte le righe più un campionamento con ripetizione fino a {@code rows}.
+     */
+    public static Instances scaled(Instances source, int rows) {
+        Random rnd = new Random(BenchFixtures.SEED);
+        Instances shuffled = new Instances(source);
+        shuffled.randomize(rnd);
+        Instances out = new Instances(source, rows);
+        for (int i = 0; i < rows; i++) {
+            int idx = i < shuffled.numInstances() ? i : rnd.nextInt(shuffled.numInstances());
+            out.add(shuffled.instance(idx));
+        }
+        out.setClassIndex(source.classIndex());
+        return out;
+    }
+
+    /** Classificatore configurato in WEKA_CLASSIFIERS (vedi ClassifierRegistry), per nome semplice della classe. */
+    public static Classifier classifier(String name) {
+        return ClassifierRegistry.configured().get(classifierIndex(name)).newClassifier();
+    }
+
+    /** Posizione nella lista configurata: WekaClassifier la usa per il seed della cella. */
+    public static int classifierIndex(String name) {
+        List<ClassifierRegistry.Entry> entries = ClassifierRegistry.configured();
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).className().endsWith("." + name)) return i;
+        }
+        throw new IllegalArgumentException("Classificatore non configurato: " + name);
+    }
+}
@@ -0,0 +1,163 @@
+package it.project.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * Confronta i risultati JMH (-rf json) con il baseline versionato in src/jmh/baseline.json.
+ *
+ *   java -cp target/benchmarks.jar it.project.bench.BaselineCheck <results.json> [baseline.json] [--update]
+ *
+ * Un benchmark regredisce se il punteggio peggiora oltre la tolleranza (BENCH_TOLERANCE, default 15%)
+ * più l'errore dichiarato da JMH su entrambe le misure; per le modalità a tempo (avgt, sample, ss) peggiorare
+ * significa crescere, per thrpt diminuire. Exit code 1 se c'è almeno una regressione.
+ * Se il baseline non esiste, o con --update, viene (ri)scritto dai risultati correnti.
+ */
+public final class BaselineCheck {
+    private static final Logger LOG = Logger.getLogger(BaselineCheck.class.getName());
+    private static final Path DEFAULT_BASELINE = Path.of("src", "jmh", "baseline.json");
+    private static final double DEFAULT_TOLERANCE = 0.15;
+
+    private BaselineCheck() {}
+
+    record Score(String mode, double score, double error, String unit) {
+        boolean timeBased() {
+            return !"thrpt".equals(mode);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            LOG.severe("Uso: BaselineCheck <results.json> [baseline.json] [--update]");
+            System.exit(2);
+        }
+        Path results = Path.of(args[0]);
+        Path baseline = DEFAULT_BASELINE;
+        boolean update = false;
+        for (int i = 1; i < args.length; i++) {
+            if ("--update".equals(args[i])) update = true;
+            else baseline = Path.of(args[i]);
+        }
+        double tolerance = Double.parseDouble(System.getProperty("BENCH_TOLERANCE", String.valueOf(DEFAULT_TOLERANCE)));
+
+        Map<String, Score> current = readResults(results);
+        if (update || !Files.exists(baseline)) {
+            writeBaseline(baseline, current);
+            LOG.log(Level.INFO, "Baseline scritto in {0} ({1} benchmark)", new Object[]{baseline, current.size()});
+            return;
+        }
+
+        int regressions = compare(readBaseline(baseline), current, tolerance);
+        if (regressions > 0) {
+            LOG.log(Level.SEVERE, "{0} regressioni rispetto a {1}", new Object[]{regressions, baseline});
+            System.exit(1);
+        }
+        LOG.log(Level.INFO, "Nessuna regressione rispetto a {0}", baseline);
+    }
+
+    static int compare(Map<String, Score> baseline, Map<String, Score> current, double tolerance) {
+        int regressions = 0;
+        for (Map.Entry<String, Score> e : current.entrySet()) {
+            Score now = e.getValue();
+            Score before = baseline.get(e.getKey());
+            if (before == null) {
+                LOG.log(Level.INFO, "NEW   {0}: {1} {2}", new Object[]{e.getKey(), fmt(now.score()), now.unit()});
+                continue;
+            }
+            if (!before.unit().equals(now.unit()) || !before.mode().equals(now.mode())) {
+                LOG.log(Level.WARNING, "SKIP  {0}: unità/modalità cambiate ({1} -> {2})",
+                        new Object[]{e.getKey(), before.unit(), now.unit()});
+                continue;
+            }
+            double margin = before.score() * tolerance + before.error() + now.error();
+            boolean worse = now.timeBased()
+                    ? now.score() > before.score() + margin
+                    : now.score() < before.score() - margin;
+            double delta = before.score() == 0 ? 0 : (now.score() - before.score()) / before.score() * 100;
+            LOG.log(worse ? Level.SEVERE : Level.INFO, "{0} {1}: {2} -> {3} {4} ({5}%)", new Object[]{
+                    worse ? "REGR " : "OK   ", e.getKey(), fmt(before.score()), fmt(now.score()), now.unit(), fmt(delta)});
+            if (worse) regressions++;
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) LOG.log(Level.INFO, "GONE  {0}", missing);
+        }
+        return regressions;
+    }
+
+    /** Chiave stabile: nome completo del benchmark + parametri ordinati, es. {@code ...csvLine} o {@code ...parseReport[files=100]}. */
+    static Map<String, Score> readResults(Path file) throws IOException {
+        Map<String, Score> out = new TreeMap<>();
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonArray runs = JsonParser.parseReader(r).getAsJsonArray();
+            for (JsonElement el : runs) {
+                JsonObject run = el.getAsJsonObject();
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString());
+                if (run.has("params")) {
+                    Map<String, String> params = new TreeMap<>();
+                    run.getAsJsonObject("params").entrySet().forEach(p -> params.put(p.getKey(), p.getValue().getAsString()));
+                    key.append(params.toString().replace('{', '[').replace('}', ']').replace(", ", ","));
+                }
+                JsonObject metric = run.getAsJsonObject("primaryMetric");
+                JsonElement error = metric.get("scoreError");
+                out.put(key.toString(), new Score(run.get("mode").getAsString(), metric.get("score").getAsDouble(),
+                        error == null || !error.isJsonPrimitive() || !error.getAsJsonPrimitive().isNumber() ? 0 : error.getAsDouble(),
+                        metric.get("scoreUnit").getAsString()));
+            }
+        }
+        return out;
+    }
+
+    static Map<String, Score> readBaseline(Path file) throws IOException {
+        Map<String, Score> out = new TreeMap<>();
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonObject root = JsonParser.parseReader(r).getAsJsonObject();
+            for (Map.Entry<String, JsonElement> e : root.getAsJsonObject("benchmarks").entrySet()) {
+                JsonObject s = e.getValue().getAsJsonObject();
+                out.put(e.getKey(), new Score(s.get("mode").getAsString(), s.get("score").getAsDouble(),
+                        s.get("error").getAsDouble(), s.get("unit").getAsString()));
+            }
+        }
+        return out;
+    }
+
+    static void writeBaseline(Path file, Map<String, Score> scores) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8); JsonWriter json = new JsonWriter(w)) {
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("jvm").value(System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+            json.name("os").value(System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+            json.name("cpus").value(Runtime.getRuntime().availableProcessors());
+            json.name("benchmarks").beginObject();
+            for (Map.Entry<String, Score> e : scores.entrySet()) {
+                Score s = e.getValue();
+                json.name(e.getKey()).beginObject()
+                        .name("mode").value(s.mode())
+                        .name("score").value(s.score())
+                        .name("error").value(s.error())
+                        .name("unit").value(s.unit())
+                        .endObject();
+            }
+            json.endObject();
+            json.endObject();
+        }
+    }
+
+    private static String fmt(double v) {
+        return String.format(java.util.Locale.ROOT, "%.3f", v);
+    }
+}
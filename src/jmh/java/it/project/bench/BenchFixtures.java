@@ -0,0 +1,157 @@
+package it.project.bench;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Input dei benchmark: sorgenti Java del progetto stesso (input "reali", se i benchmark girano dalla
+ * root del repository) più classi sintetiche generate in modo deterministico, report PMD e commit
+ * sintetici. Tutto viene creato in directory temporanee e rimosso in {@link #delete(Path)}.
+ */
+public final class BenchFixtures {
+    public static final long SEED = 42L;
+    private static final Path BUNDLED_SOURCES = Path.of("src", "main", "java");
+
+    private BenchFixtures() {}
+
+    /** path relativo → contenuto: sorgenti del progetto (se presenti) + {@code synthetic} classi generate. */
+    public static Map<String, String> javaSources(int synthetic) {
+        Map<String, String> files = new LinkedHashMap<>();
+        if (Files.isDirectory(BUNDLED_SOURCES)) {
+            try (Stream<Path> walk = Files.walk(BUNDLED_SOURCES)) {
+                for (Path p : walk.filter(f -> f.toString().endsWith(".java")).sorted().toList()) {
+                    files.put(BUNDLED_SOURCES.relativize(p).toString().replace('\\', '/'), Files.readString(p));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        Random rnd = new Random(SEED);
+        for (int i = 0; i < synthetic; i++) {
+            files.put("synthetic/Synthetic" + i + ".java", syntheticClass(i, 8 + rnd.nextInt(16), rnd));
+        }
+        return files;
+    }
+
+    /** Classe con campi condivisi tra metodi (LCOM4) e metodi ramificati (complessità ciclomatica). */
+    public static String syntheticClass(int id, int methods, Random rnd) {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("package synthetic;\n\npublic class Synthetic").append(id).append(" {\n");
+        int fields = 2 + rnd.nextInt(6);
+        for (int f = 0; f < fields; f++) sb.append("    private int f").append(f).append(";\n");
+        for (int m = 0; m < methods; m++) {
+            sb.append("\n    public int m").append(m).append("(int a, int b) {\n");
+            sb.append("        int r = f").append(rnd.nextInt(fields)).append(";\n");
+            int branches = 1 + rnd.nextInt(6);
+            for (int b = 0; b < branches; b++) {
+                switch (rnd.nextInt(4)) {
+                    case 0 -> sb.append("        if (a > ").append(b).append(" && b < r) { r += a; } else { r -= b; }\n");
+                    case 1 -> sb.append("        for (int i = 0; i < a; i++) { r += i % 3 == 0 ? i : -i; }\n");
+                    case 2 -> sb.append("        while (r > b || r < -b) { r /= 2; }\n");
+                    default -> sb.append("        switch (a % 3) { case 0: r++; break; case 1: r--; break; default: r = m")
+                            .append(rnd.nextInt(methods)).append("(b, a - 1); }\n");
+                }
+            }
+            sb.append("        f").append(rnd.nextInt(fields)).append(" = r;\n");
+            sb.append("        return r;\n    }\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    /** Repository git in {@code dir} con un solo commit contenente i file indicati. */
+    public static Git commitAll(Path dir, Map<String, String> files) throws IOException, GitAPIException {
+        Git git = Git.init().setDirectory(dir.toFile()).call();
+        for (Map.Entry<String, String> e : files.entrySet()) {
+            Path target = dir.resolve(e.getKey());
+            Files.createDirectories(target.getParent());
+            Files.writeString(target, e.getValue());
+        }
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("bench fixture").setAuthor("bench", "bench@example.org")
+                .setCommitter("bench", "bench@example.org").setSign(false).call();
+        return git;
+    }
+
+    /** Blob dei file .java dell'ultimo commit: path → ObjectId, in ordine di tree walk. */
+    public static Map<String, ObjectId> javaBlobs(Git git) throws IOException {
+        Map<String, ObjectId> blobs = new LinkedHashMap<>();
+        RevCommit head = git.getRepository().parseCommit(git.getRepository().resolve("HEAD"));
+        try (TreeWalk tw = new TreeWalk(git.getRepository())) {
+            tw.addTree(head.getTree());
+            tw.setRecursive(true);
+            while (tw.next()) {
+                if (tw.getPathString().endsWith(".java")) blobs.put(tw.getPathString(), tw.getObjectId(0));
+            }
+        }
+        return blobs;
+    }
+
+    /**
+     * Commit sintetici (non legati a un repository) con messaggi che citano una chiave ticket
+     * {@code <project>-<n>} nel {@code referencing}% dei casi.
+     */
+    public static List<RevCommit> syntheticCommits(int count, String project, int tickets, int referencing) {
+        Random rnd = new Random(SEED);
+        List<RevCommit> commits = new ArrayList<>(count);
+        String tree = ObjectId.zeroId().name();
+        for (int i = 0; i < count; i++) {
+            String message = (rnd.nextInt(100) < referencing)
+                    ? project + "-" + rnd.nextInt(tickets) + ": fix issue in module " + rnd.nextInt(50)
+                    : "Refactor module " + rnd.nextInt(50) + " and update docs";
+            long time = 1_500_000_000L + i * 3_600L;
+            String raw = "tree " + tree + "\n"
+                    + "author dev" + (i % 17) + " <dev" + (i % 17) + "@example.org> " + time + " +0000\n"
+                    + "committer dev <dev@example.org> " + time + " +0000\n\n"
+                    + message + "\n\nSome longer description of the change number " + i + ".\n";
+            commits.add(RevCommit.parse(raw.getBytes(StandardCharsets.UTF_8)));
+        }
+        return commits;
+    }
+
+    /** Report PMD XML sintetico: {@code files} file con {@code violationsPerFile} violazioni ciascuno. */
+    public static Path pmdReport(Path dir, Path repoRoot, int files, int violationsPerFile) throws IOException {
+        Random rnd = new Random(SEED);
+        Path report = dir.resolve("pmd-bench.xml");
+        try (Writer w = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            w.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<pmd version=\"7.0.0\">\n");
+            for (int f = 0; f < files; f++) {
+                w.write("<file name=\"" + repoRoot.resolve("src/main/java/pkg" + (f % 20) + "/File" + f + ".java").toAbsolutePath() + "\">\n");
+                for (int v = 0; v < violationsPerFile; v++) {
+                    int begin = 1 + rnd.nextInt(2000);
+                    w.write("<violation beginline=\"" + begin + "\" endline=\"" + (begin + rnd.nextInt(30))
+                            + "\" begincolumn=\"1\" endcolumn=\"10\" rule=\"GodClass\" ruleset=\"Design\" priority=\"3\">"
+                            + "Possible God Class</violation>\n");
+                }
+                w.write("</file>\n");
+            }
+            w.write("</pmd>\n");
+        }
+        return report;
+    }
+
+    public static void delete(Path dir) {
+        if (dir == null || !Files.exists(dir)) return;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package it.project.bench;
+
+import it.project.utils.ColumnarDataset;
+import it.project.utils.CompressedIO;
+import it.project.utils.TrainingSetStore;
+import weka.core.Instances;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * Verifica che i percorsi binari e l'ARFF diano ai classificatori gli stessi Instances.
+ *
+ *   java -cp target/benchmarks.jar it.project.bench.DatasetPathCheck [progetto...]
+ *
+ * Per ogni iterazione confronta TrainingSetStore con training/ARFF e testing/BIN con testing/ARFF, quando
+ * esistono entrambi: stesso header, stesse righe, stessi double bit per bit. Exit code 1 al primo progetto
+ * con differenze. Va lanciato dopo un'estrazione con EXPORT_TRAINING_FILES=true, altrimenti l'ARFF di
+ * training non c'è e si confronta solo il testing.
+ */
+public final class DatasetPathCheck {
+    private static final Logger LOG = Logger.getLogger(DatasetPathCheck.class.getName());
+    private static final String RESOURCES = "src/main/resources/";
+
+    private DatasetPathCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        List<String> projects = args.length == 0 ? List.of("BOOKKEEPER", "OPENJPA") : List.of(args);
+        List<String> mismatches = new ArrayList<>();
+        int compared = 0;
+        for (String project : projects) {
+            TrainingSetStore store = new TrainingSetStore(project);
+            for (int iteration = 1; ; iteration++) {
+                File trainArff = file(project, "training", "ARFF", iteration, ".arff");
+                File testArff = file(project, "testing", "ARFF", iteration, ".arff");
+                File testBin = file(project, "testing", "BIN", iteration, ColumnarDataset.EXTENSION);
+                if (!CompressedIO.existing(testArff).isFile() && !store.hasIteration(iteration)) break;
+
+                if (store.hasIteration(iteration) && CompressedIO.existing(trainArff).isFile()) {
+                    compare(project + " training " + iteration, store.load(iteration),
+                            CompressedIO.loadInstances(trainArff), mismatches);
+                    compared++;
+                }
+                if (testBin.isFile() && CompressedIO.existing(testArff).isFile()) {
+                    compare(project + " testing " + iteration, ColumnarDataset.load(testBin),
+                            CompressedIO.loadInstances(testArff), mismatches);
+                    compared++;
+                }
+            }
+        }
+
+        LOG.log(Level.INFO, "Dataset confrontati: {0}, diversi: {1}", new Object[]{compared, mismatches.size()});
+        for (String m : mismatches) LOG.severe(m);
+        if (!mismatches.isEmpty()) System.exit(1);
+    }
+
+    private static File file(String project, String kind, String format, int iteration, String extension) {
+        String baseName = project + "_" + kind + "_iter_" + iteration;
+        return Paths.get(RESOURCES, project.toLowerCase(), kind, format, baseName + extension).toFile();
+    }
+
+    private static void compare(String label, Instances binary, Instances arff, List<String> mismatches) {
+        // come in WekaClassifier.loadIteration: classe in coda
+        binary.setClassIndex(binary.numAttributes() - 1);
+        arff.setClassIndex(arff.numAttributes() - 1);
+        String header = arff.equalHeadersMsg(binary);
+        if (header != null) {
+            mismatches.add(label + ": header diverso (" + header + ")");
+            return;
+        }
+        if (binary.numInstances() != arff.numInstances()) {
+            mismatches.add(label + ": " + binary.numInstances() + " righe contro " + arff.numInstances());
+            return;
+        }
+        for (int r = 0; r < arff.numInstances(); r++) {
+            if (!Arrays.equals(binary.instance(r).toDoubleArray(), arff.instance(r).toDoubleArray())) {
+                mismatches.add(label + ": riga " + r + " diversa (" + binary.instance(r) + " / " + arff.instance(r) + ")");
+                return;
+            }
+        }
+    }
+}
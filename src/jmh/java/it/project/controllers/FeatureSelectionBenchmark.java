@@ -0,0 +1,88 @@
+package it.project.controllers;
+
+import it.project.bench.ArffFixtures;
+import it.project.bench.BenchFixtures;
+import it.project.utils.FileCSVGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import weka.attributeSelection.ASSearch;
+import weka.attributeSelection.BestFirst;
+import weka.attributeSelection.CfsSubsetEval;
+import weka.attributeSelection.GreedyStepwise;
+import weka.core.Instances;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/** CFS + ricerca ({@code runFeatureSelection}) sul training e riduzione di train/test, per le tre ricerche della pipeline. */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeatureSelectionBenchmark {
+    @Param({"BOOKKEEPER", "OPENJPA"})
+    public String project;
+
+    @Param({"forward", "backward", "bestfirst"})
+    public String search;
+
+    @Param({"1000", "5000", "20000"})
+    public int rows;
+
+    private Path dir;
+    private WekaClassifier weka;
+    private Instances train;
+    private Instances test;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+        dir = Files.createTempDirectory("bench-fs");
+        weka = new WekaClassifier(project, new FileCSVGenerator(dir.toString() + File.separator, project));
+        int iteration = ArffFixtures.lastIteration(project);
+        train = ArffFixtures.scaled(ArffFixtures.load(project, "training", iteration), rows);
+        test = ArffFixtures.load(project, "testing", iteration);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchFixtures.delete(dir);
+    }
+
+    @Benchmark
+    public Object runFeatureSelection() throws Exception {
+        return weka.runFeatureSelection(train, test, new CfsSubsetEval(), searchMethod());
+    }
+
+    private ASSearch searchMethod() {
+        return switch (search) {
+            case "forward" -> {
+                GreedyStepwise gs = new GreedyStepwise();
+                gs.setSearchBackwards(false);
+                yield gs;
+            }
+            case "backward" -> {
+                GreedyStepwise gs = new GreedyStepwise();
+                gs.setSearchBackwards(true);
+                yield gs;
+            }
+            default -> new BestFirst();
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package it.project.controllers;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import it.project.bench.BenchFixtures;
+import it.project.entities.Release;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Estrazione per release: parsing dei sorgenti dal repository (blob JGit → JavaParser → JavaMethod)
+ * e le due metriche strutturali calcolate sull'AST, LCOM4 e complessità ciclomatica.
+ * Input: sorgenti del progetto + 60 classi sintetiche, committati in un repository temporaneo.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GitExtractionBenchmark {
+    private Path dir;
+    private Git git;
+    private GitExtraction extraction;
+    private final List<String> paths = new ArrayList<>();
+    private final List<ObjectId> blobs = new ArrayList<>();
+    private final List<ClassOrInterfaceDeclaration> classes = new ArrayList<>();
+    private final List<MethodDeclaration> methods = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // parseJavaFile logga un warning per ogni file non parsabile: fuori dalla misura
+        Logger.getLogger("").setLevel(java.util.logging.Level.SEVERE);
+        dir = Files.createTempDirectory("bench-git");
+        Map<String, String> sources = BenchFixtures.javaSources(60);
+        git = BenchFixtures.commitAll(dir, sources);
+        BenchFixtures.javaBlobs(git).forEach((path, id) -> {
+            paths.add(path);
+            blobs.add(id);
+        });
+        extraction = new GitExtraction(git, "");
+
+        // stesso parser (e stesso livello di linguaggio) di parseJavaFile: i file non parsabili vengono saltati
+        JavaParser parser = new JavaParser();
+        for (String source : sources.values()) {
+            parser.parse(source).getResult().ifPresent(cu -> {
+                classes.addAll(cu.findAll(ClassOrInterfaceDeclaration.class));
+                methods.addAll(cu.findAll(MethodDeclaration.class));
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        git.close();
+        BenchFixtures.delete(dir);
+    }
+
+    /** Tutti i file di una "release": costo per release di {@code analyzeReleaseCode} esclusi checkout e PMD. */
+    @Benchmark
+    public int parseJavaFile() throws Exception {
+        Release release = new Release(1, "bench", LocalDateTime.of(2020, 1, 1, 0, 0), "1");
+        for (int i = 0; i < blobs.size(); i++) {
+            extraction.parseJavaFile(blobs.get(i), paths.get(i), release);
+        }
+        return release.getJavaClassList().size();
+    }
+
+    @Benchmark
+    public void calculateCyclomaticComplexity(Blackhole bh) {
+        for (MethodDeclaration m : methods) bh.consume(extraction.calculateCyclomaticComplexity(m));
+    }
+
+    @Benchmark
+    public void calculateLCOM4(Blackhole bh) {
+        for (ClassOrInterfaceDeclaration c : classes) bh.consume(extraction.calculateLCOM4(c));
+    }
+}
@@ -0,0 +1,86 @@
+package it.project.controllers;
+
+import it.project.bench.BenchFixtures;
+import it.project.entities.JavaMethod;
+import it.project.entities.Smell;
+import org.eclipse.jgit.diff.Edit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metriche per metodo di {@link MetricsCalculator}: impatto delle edit di un commit sul range di
+ * righe di ogni metodo (churn/added) e conteggio degli smell PMD che cadono nel metodo.
+ * Un'operazione = tutti i metodi di un file sintetico da {@code methods} metodi.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsCalculatorBenchmark {
+    @Param({"50"})
+    public int methods;
+
+    @Param({"10", "200"})
+    public int editsPerCommit;
+
+    @Param({"10", "500"})
+    public int smellsPerFile;
+
+    private final MetricsCalculator calculator = new MetricsCalculator(null);
+    private final List<JavaMethod> fileMethods = new ArrayList<>();
+    private final List<Edit> edits = new ArrayList<>();
+    private final List<Smell> smells = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rnd = new Random(BenchFixtures.SEED);
+        int line = 1;
+        for (int i = 0; i < methods; i++) {
+            int length = 5 + rnd.nextInt(40);
+            fileMethods.add(new JavaMethod("m" + i, "", null, line, line + length, "(int)"));
+            line += length + 2;
+        }
+        int fileLength = line;
+        int at = 0;
+        for (int i = 0; i < editsPerCommit; i++) {
+            at += 1 + rnd.nextInt(Math.max(2, 2 * fileLength / editsPerCommit));
+            int removed = rnd.nextInt(5);
+            int added = rnd.nextInt(8);
+            edits.add(new Edit(at, at + removed, at, at + added));
+        }
+        for (int i = 0; i < smellsPerFile; i++) {
+            int begin = 1 + rnd.nextInt(fileLength);
+            smells.add(new Smell(begin, begin + rnd.nextInt(20)));
+        }
+    }
+
+    @Benchmark
+    public void calculateImpactForCommit(Blackhole bh) {
+        for (JavaMethod m : fileMethods) {
+            bh.consume(calculator.calculateImpactForCommit(edits, m.getStartLine(), m.getEndLine()));
+        }
+    }
+
+    @Benchmark
+    public void countSmellsForMethod(Blackhole bh) {
+        for (JavaMethod m : fileMethods) bh.consume(calculator.countSmellsForMethod(smells, m));
+    }
+}
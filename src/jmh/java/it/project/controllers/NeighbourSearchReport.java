@@ -0,0 +1,116 @@
+package it.project.controllers;
+
+import it.project.bench.ArffFixtures;
+import it.project.utils.CsvWriter;
+import it.project.utils.NeighbourSearches;
+import weka.classifiers.Classifier;
+import weka.classifiers.lazy.IBk;
+import weka.core.Instances;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+ * Tempi di IBk per struttura di ricerca nearest-neighbour, iterazione per iterazione.
+ *
+ *   java -cp target/benchmarks.jar it.project.controllers.NeighbourSearchReport [progetto...]
+ *        [--normalization=incremental|training] [--repeat=3] [--out=target/nn-search-report.csv]
+ *
+ * Per ogni iterazione walk-forward e struttura (linear, kdtree, balltree, covertree): build = buildClassifier
+ * sul training, query = predizione del testing come nella valutazione (PredictionMatrix), mediana di --repeat
+ * esecuzioni. IBk è quello di WEKA_CLASSIFIERS con la sola ricerca sostituita. "diffs" conta le istanze di test
+ * con distribuzione diversa da linear: 0 vuol dire che la struttura è intercambiabile con la ricerca lineare.
+ * Non è un benchmark JMH: serve a scegliere WEKA_CLASSIFIER_<ID>_SEARCH sui dataset reali, non a seguire
+ * regressioni (per quelle c'è WekaEvaluationBenchmark).
+ */
+public final class NeighbourSearchReport {
+    private static final Logger LOG = Logger.getLogger(NeighbourSearchReport.class.getName());
+    private static final String[] STRUCTURES = {"linear", "kdtree", "balltree", "covertree"};
+
+    private NeighbourSearchReport() {}
+
+    public static void main(String[] args) throws Exception {
+        List<String> projects = new ArrayList<>();
+        NeighbourSearches.Normalization normalization = NeighbourSearches.Normalization.INCREMENTAL;
+        int repeat = 3;
+        File out = new File("target/nn-search-report.csv");
+        for (String arg : args) {
+            if (arg.startsWith("--normalization=")) normalization = NeighbourSearches.normalization(value(arg));
+            else if (arg.startsWith("--repeat=")) repeat = Math.max(1, Integer.parseInt(value(arg)));
+            else if (arg.startsWith("--out=")) out = new File(value(arg));
+            else projects.add(arg);
+        }
+        if (projects.isEmpty()) projects = List.of("BOOKKEEPER", "OPENJPA");
+
+        try (CsvWriter csv = new CsvWriter(out)) {
+            csv.row("project", "iteration", "train_rows", "test_rows", "search", "normalization",
+                    "build_ms", "query_ms", "diffs");
+            for (String project : projects) {
+                int iterations = ArffFixtures.lastIteration(project);
+                for (int iteration = 1; iteration <= iterations; iteration++) {
+                    Instances train = ArffFixtures.load(project, "training", iteration);
+                    Instances test = ArffFixtures.load(project, "testing", iteration);
+                    double[][] reference = null;
+                    for (String structure : STRUCTURES) {
+                        Timing timing = measure(train, test, structure, normalization, repeat);
+                        if (reference == null) reference = timing.distributions;
+                        int diffs = diffs(reference, timing.distributions);
+
+                        csv.field(project).field(iteration).field(train.numInstances()).field(test.numInstances())
+                                .field(structure).field(normalization.name().toLowerCase(Locale.ROOT))
+                                .field(timing.buildMs).field(timing.queryMs).field(diffs);
+                        csv.endRow();
+                        LOG.log(Level.INFO, "{0} iter {1} {2}: build {3} ms, query {4} ms, diffs {5}",
+                                new Object[]{project, iteration, structure, timing.buildMs, timing.queryMs, diffs});
+                    }
+                }
+            }
+        }
+        LOG.log(Level.INFO, "Report scritto in {0}", out.getAbsolutePath());
+    }
+
+    private record Timing(long buildMs, long queryMs, double[][] distributions) {}
+
+    private static Timing measure(Instances train, Instances test, String structure,
+                                  NeighbourSearches.Normalization normalization, int repeat) throws Exception {
+        long[] build = new long[repeat];
+        long[] query = new long[repeat];
+        double[][] distributions = null;
+        for (int r = 0; r < repeat; r++) {
+            Classifier classifier = ArffFixtures.classifier("IBk");
+            NeighbourSearches.configure((IBk) classifier, structure, normalization);
+
+            long t0 = System.nanoTime();
+            classifier.buildClassifier(train);
+            long t1 = System.nanoTime();
+            distributions = PredictionMatrix.distributions(classifier, test);
+            long t2 = System.nanoTime();
+            build[r] = (t1 - t0) / 1_000_000;
+            query[r] = (t2 - t1) / 1_000_000;
+        }
+        return new Timing(median(build), median(query), distributions);
+    }
+
+    private static int diffs(double[][] reference, double[][] distributions) {
+        int diffs = 0;
+        for (int i = 0; i < reference.length; i++) {
+            if (!Arrays.equals(reference[i], distributions[i])) diffs++;
+        }
+        return diffs;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String value(String arg) {
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+}
@@ -0,0 +1,83 @@
+package it.project.controllers;
+
+import it.project.bench.ArffFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import weka.classifiers.Classifier;
+import weka.core.Instances;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistiche sulle predizioni di un modello già addestrato: {@code SmellImpactAnalyzer.predictStats}
+ * (una distribuzione per istanza) e {@code EffortAwareMetrics} (un ordinamento per probabilità, poi PofB20,
+ * NPofB20, Popt, ACC e IFA dalle curve cumulative) sul dataset di test ridimensionato a {@code rows} righe.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredictionStatsBenchmark {
+    @Param({"BOOKKEEPER", "OPENJPA"})
+    public String project;
+
+    @Param({"NaiveBayes", "RandomForest", "IBk"})
+    public String classifier;
+
+    @Param({"1000", "5000", "20000"})
+    public int rows;
+
+    private final SmellImpactAnalyzer analyzer = new SmellImpactAnalyzer();
+    private Classifier model;
+    private Instances data;
+    private int[] loc;
+    private double[] probYes;
+    private boolean[] buggy;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        int iteration = ArffFixtures.lastIteration(project);
+        Instances train = ArffFixtures.load(project, "training", iteration);
+        model = ArffFixtures.classifier(classifier);
+        model.buildClassifier(train);
+        data = ArffFixtures.scaled(ArffFixtures.load(project, "testing", iteration), rows);
+
+        int locIdx = data.attribute("LOC").index();
+        int yes = data.classAttribute().indexOfValue("Yes");
+        loc = new int[rows];
+        probYes = new double[rows];
+        buggy = new boolean[rows];
+        for (int i = 0; i < rows; i++) {
+            loc[i] = (int) data.instance(i).value(locIdx);
+            probYes[i] = model.distributionForInstance(data.instance(i))[yes];
+            buggy[i] = (int) data.instance(i).classValue() == yes;
+        }
+    }
+
+    @Benchmark
+    public Object predictStats() throws Exception {
+        return analyzer.predictStats(data, model);
+    }
+
+    @Benchmark
+    public double effortAwareMetrics() {
+        EffortAwareMetrics metrics = EffortAwareMetrics.of(loc, probYes, buggy);
+        return metrics.pofB(EffortAwareMetrics.DEFAULT_EFFORT)
+                + metrics.normalizedPofB(EffortAwareMetrics.DEFAULT_EFFORT)
+                + metrics.popt()
+                + metrics.acc(EffortAwareMetrics.DEFAULT_EFFORT)
+                + metrics.ifa();
+    }
+}
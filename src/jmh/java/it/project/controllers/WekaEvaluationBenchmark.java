@@ -0,0 +1,78 @@
+package it.project.controllers;
+
+import it.project.bench.ArffFixtures;
+import it.project.bench.BenchFixtures;
+import it.project.entities.ClassifierSettings;
+import it.project.utils.FileCSVGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import weka.classifiers.Classifier;
+import weka.core.Instances;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Costo di una cella della griglia di valutazione: 10-fold CV sul training + fit + test
+ * ({@code evaluateSingleClassifier}), al variare di progetto, classificatore e righe di training.
+ * SingleShotTime: una singola operazione dura da decine di millisecondi a diversi secondi.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WekaEvaluationBenchmark {
+    @Param({"BOOKKEEPER", "OPENJPA"})
+    public String project;
+
+    @Param({"NaiveBayes", "RandomForest", "IBk"})
+    public String classifier;
+
+    @Param({"1000", "5000", "20000"})
+    public int rows;
+
+    private Path dir;
+    private WekaClassifier weka;
+    private Classifier prototype;
+    private int index;
+    private Instances train;
+    private Instances test;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+        dir = Files.createTempDirectory("bench-weka");
+        weka = new WekaClassifier(project, new FileCSVGenerator(dir.toString() + File.separator, project));
+        int iteration = ArffFixtures.lastIteration(project);
+        train = ArffFixtures.scaled(ArffFixtures.load(project, "training", iteration), rows);
+        test = ArffFixtures.load(project, "testing", iteration);
+        prototype = ArffFixtures.classifier(classifier);
+        index = ArffFixtures.classifierIndex(classifier);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchFixtures.delete(dir);
+    }
+
+    @Benchmark
+    public Object evaluateSingleClassifier() throws Exception {
+        return weka.evaluateSingleClassifier(prototype, index, 1, train, test, new ClassifierSettings(), "bench");
+    }
+}
@@ -0,0 +1,65 @@
+package it.project.utils;
+
+import it.project.bench.BenchFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formattazione delle righe CSV del dataset (escape + join). Un'operazione = 1000 righe con le
+ * stesse colonne del dataset di metodi (nome metodo, release, metriche, etichetta).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvLineBenchmark {
+    private static final int ROWS = 1000;
+
+    private Path dir;
+    private FileCSVGenerator generator;
+    private final String[][] rows = new String[ROWS][];
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("bench-csv");
+        generator = new FileCSVGenerator(dir.toString() + File.separator, "BENCH");
+        Random rnd = new Random(BenchFixtures.SEED);
+        for (int r = 0; r < ROWS; r++) {
+            String[] row = new String[14];
+            row[0] = "it/project/pkg" + rnd.nextInt(20) + "/File" + r + ".java/method" + r + "(int, \"String\")";
+            row[1] = String.valueOf(1 + rnd.nextInt(30));
+            for (int c = 2; c < row.length - 1; c++) row[c] = String.valueOf(rnd.nextInt(500));
+            row[row.length - 1] = rnd.nextBoolean() ? "yes" : "no";
+            rows[r] = row;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchFixtures.delete(dir);
+    }
+
+    @Benchmark
+    public void csvLine(Blackhole bh) {
+        for (String[] row : rows) bh.consume(generator.csvLine(row));
+    }
+}
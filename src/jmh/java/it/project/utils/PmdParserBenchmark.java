@@ -0,0 +1,58 @@
+package it.project.utils;
+
+import it.project.bench.BenchFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** Parsing del report XML di PMD per una release: DOM + path relativi + raggruppamento per file. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PmdParserBenchmark {
+    @Param({"100", "1000"})
+    public int files;
+
+    @Param({"20"})
+    public int violationsPerFile;
+
+    private Path dir;
+    private File report;
+    private File repoRoot;
+    private final PmdParser parser = new PmdParser();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("bench-pmd");
+        repoRoot = dir.resolve("repo").toFile();
+        report = BenchFixtures.pmdReport(dir, repoRoot.toPath(), files, violationsPerFile).toFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchFixtures.delete(dir);
+    }
+
+    @Benchmark
+    public Object parseReport() {
+        return parser.parseReport(report, repoRoot);
+    }
+}
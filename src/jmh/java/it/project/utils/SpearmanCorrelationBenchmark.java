@@ -0,0 +1,67 @@
+package it.project.utils;
+
+import it.project.bench.ArffFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import weka.core.Instances;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranking con pari (average ranks) e Pearson su coppie di feature reali del training set:
+ * LOC/Churn ha molti pari (valori interi piccoli), è il caso tipico delle correlazioni feature-feature.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpearmanCorrelationBenchmark {
+    @Param({"BOOKKEEPER", "OPENJPA"})
+    public String project;
+
+    @Param({"1000", "5000", "20000"})
+    public int rows;
+
+    private double[] loc;
+    private double[] churn;
+    private double[] locRanks;
+    private double[] churnRanks;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        int iteration = ArffFixtures.lastIteration(project);
+        Instances data = ArffFixtures.scaled(ArffFixtures.load(project, "training", iteration), rows);
+        loc = data.attributeToDoubleArray(data.attribute("LOC").index());
+        churn = data.attributeToDoubleArray(data.attribute("Churn").index());
+        locRanks = SpearmanCorrelation.ranks(loc);
+        churnRanks = SpearmanCorrelation.ranks(churn);
+    }
+
+    @Benchmark
+    public double[] ranks() {
+        return SpearmanCorrelation.ranks(loc);
+    }
+
+    @Benchmark
+    public double pearson() {
+        return SpearmanCorrelation.pearson(locRanks, churnRanks);
+    }
+
+    /** Spearman completo su una coppia, come in SpearmanCorrelation.spearman. */
+    @Benchmark
+    public double spearman() {
+        return SpearmanCorrelation.pearson(SpearmanCorrelation.ranks(loc), SpearmanCorrelation.ranks(churn));
+    }
+}
@@ -0,0 +1,71 @@
+package it.project.utils;
+
+import it.project.bench.BenchFixtures;
+import it.project.entities.Release;
+import it.project.entities.Ticket;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/** Collegamento ticket → commit sui messaggi di commit, su commit sintetici distribuiti in 20 release. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TicketLinkBenchmark {
+    private static final String PROJECT = "BENCH";
+    private static final int RELEASES = 20;
+
+    @Param({"200", "2000"})
+    public int tickets;
+
+    @Param({"2000", "20000"})
+    public int commits;
+
+    private final List<Ticket> ticketList = new ArrayList<>();
+    private final List<Release> releaseList = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // linkTicketsToCommits logga a INFO ad ogni chiamata
+        Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+
+        LocalDateTime start = LocalDateTime.of(2015, 1, 1, 0, 0);
+        for (int i = 0; i < tickets; i++) {
+            Ticket t = new Ticket(start.plusDays(i), start.plusDays(i + 10L), PROJECT + "-" + i);
+            ticketList.add(t);
+        }
+        List<RevCommit> all = BenchFixtures.syntheticCommits(commits, PROJECT, tickets, 60);
+        int perRelease = (commits + RELEASES - 1) / RELEASES;
+        for (int r = 0; r < RELEASES; r++) {
+            Release release = new Release(r + 1, "1." + r, start.plusMonths(r), String.valueOf(r));
+            release.getCommitList().addAll(all.subList(Math.min(r * perRelease, commits), Math.min((r + 1) * perRelease, commits)));
+            releaseList.add(release);
+        }
+    }
+
+    @Benchmark
+    public List<Ticket> linkTicketsToCommits() {
+        for (Ticket t : ticketList) t.getCommitList().clear();
+        TicketUtils.linkTicketsToCommits(ticketList, releaseList);
+        return ticketList;
+    }
+}
@@ -3,7 +3,9 @@ package it.project;
 import it.project.controllers.DatasetCreation;
 import it.project.controllers.SmellImpactAnalyzer;
 import it.project.controllers.WekaClassifier;
+import it.project.utils.FeatureSelectionCache;
 import it.project.utils.FileCSVGenerator;
+import it.project.utils.RunMetrics;
 import it.project.utils.SpearmanCorrelation;
 
 import weka.attributeSelection.BestFirst;
@@ -53,18 +55,27 @@ public class Main {
 
         // 1) Estrazione dataset (Jira/Git/PMD → CSV/ARFF)
         if (!skipExtraction) {
-            runExtraction(projectName, pmdPath);
+            try (var _ = RunMetrics.stage("extraction")) {
+                runExtraction(projectName, pmdPath);
+            }
         }
 
         // 2) Valutazione (correlazioni + classificatori Weka + ranking feature)
         if (!skipEvaluation) {
-            runEvaluation(projectName, outputPath);
+            try (var _ = RunMetrics.stage("evaluation")) {
+                runEvaluation(projectName, outputPath);
+            }
         }
 
         // 3) Analisi impatto smell (dataset full + classifier per progetto)
         if(!skipSmellImpact) {
-            runSmellImpact(projectName, outputPath);
+            try (var _ = RunMetrics.stage("smellImpact")) {
+                runSmellImpact(projectName, outputPath);
+            }
         }
+
+        // Report tempi/risorse del run (JSON + CSV in otherFiles)
+        RunMetrics.writeReportSafe(Paths.get(outputPath).resolve(projectName.toLowerCase()).resolve("otherFiles"), projectName);
     }
 
     // --------------- PHASE 1: EXTRACTION ---------------
@@ -123,7 +134,7 @@ public class Main {
                 // BClassifier = Naive Bayes con GreedyStepwise (forward)
                 // AFMethod = openjpa-kernel/.../DetachedStateManager.java::attach
                 String arffPath = "src/main/resources/openjpa/otherFiles/OPENJPA_fullDataset.arff";
-                Classifier clf = buildRandomForestWithBestFirst(N_SMELL);
+                Classifier clf = buildRandomForestWithBestFirst(N_SMELL, projectName);
                     analyzer.run(
                             arffPath,
                             clf,
@@ -142,6 +153,8 @@ public class Main {
             }
         } catch (Exception e) {
             Logger.getAnonymousLogger().log(Level.SEVERE, "Errore durante SmellImpactAnalyzer.run()", e);
+        } finally {
+            FeatureSelectionCache.saveAll();
         }
     }
 
@@ -151,8 +164,9 @@ public class Main {
      * con CfsSubsetEval + GreedyStepwise (forward).
      * Nota: così il “greedy stepwise” viene applicato “prima” del classifier
      * in modo integrato al training (CV/fold-safe), senza dover salvare un ARFF filtrato.
+     * La ricerca passa dalla cache feature selection del progetto: stessi dati e start set, stesso subset.
      */
-    public static Classifier buildRandomForestWithBestFirst(String mustKeepAttrName) {
+    public static Classifier buildRandomForestWithBestFirst(String mustKeepAttrName, String projectName) {
         BestFirst bf = new BestFirst();
 
         CfsSubsetEval eval = new CfsSubsetEval();
@@ -162,13 +176,14 @@ public class Main {
             public void buildClassifier(Instances data) throws Exception {
                 int keepIdx0 = data.attribute(mustKeepAttrName).index();
                 int keepIdx1 = keepIdx0 + 1; // 1-based per Weka
-                ((BestFirst) getSearch()).setStartSet(Integer.toString(keepIdx1));
+                FeatureSelectionCache.CachedSearch search = (FeatureSelectionCache.CachedSearch) getSearch();
+                ((BestFirst) search.getDelegate()).setStartSet(Integer.toString(keepIdx1));
                 super.buildClassifier(data);
             }
         };
 
         asc.setEvaluator(eval);
-        asc.setSearch(bf);
+        asc.setSearch(new FeatureSelectionCache.CachedSearch(bf, FeatureSelectionCache.forProject(projectName)));
         asc.setClassifier(new RandomForest());
 
         return asc;
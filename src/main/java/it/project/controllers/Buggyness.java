@@ -7,6 +7,7 @@ import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.body.CallableDeclaration;
 import it.project.entities.*;
+import it.project.utils.RunMetrics;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
@@ -41,6 +42,12 @@ public class Buggyness {
      * @param ticketsToUse Il sottoinsieme di ticket da usare per l'etichettatura.
      */
     public void calculate(List<Release> releasesToLabel, List<Ticket> ticketsToUse){
+        try (var _ = RunMetrics.stage("buggyness.calculate")) {
+            label(releasesToLabel, ticketsToUse);
+        }
+    }
+
+    private void label(List<Release> releasesToLabel, List<Ticket> ticketsToUse){
         // 1. Reset della bugginess per le release che stiamo per etichettare.
         // Fondamentale per non contaminare le iterazioni del Walk-Forward.
         for (Release release : releasesToLabel) {
@@ -86,6 +93,7 @@ public class Buggyness {
     }
 
     private void processFixCommit(RevCommit fixCommit, RevCommit parentCommit, Release release) {
+        RunMetrics.count("buggyness.commitsDiffed", 1);
         try (DiffFormatter df = createDiffFormatter()) {
             List<DiffEntry> diffs = df.scan(parentCommit.getTree(), fixCommit.getTree());
             for (DiffEntry diff : diffs) {
@@ -136,6 +144,7 @@ public class Buggyness {
 
         JavaParser parser = new JavaParser();
         ParseResult<CompilationUnit> result = parser.parse(oldFileContent);
+        RunMetrics.count("buggyness.filesParsed", 1);
         if (!result.isSuccessful() || result.getResult().isEmpty()) return methodNames;
         CompilationUnit cu = result.getResult().get();
 
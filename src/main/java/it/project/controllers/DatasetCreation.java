@@ -8,7 +8,10 @@ import org.eclipse.jgit.api.Git;
 
 import java.io.IOException;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -24,12 +27,18 @@ public class DatasetCreation {
         FileCSVGenerator csv = new FileCSVGenerator(DIRECTORY, projectName);
 
         // Releases + CSV
-        List<Release> releaseList = jira.getReleaseInfo();
+        List<Release> releaseList;
+        try (var _ = RunMetrics.stage("jira.releases")) {
+            releaseList = jira.getReleaseInfo();
+        }
         LOG.info("Data extraction: Releases List");
         csv.generateReleaseInfo(releaseList);
 
         // Tickets preparati (fix inconsistenze, ordine, proporzioni)
-        List<Ticket> ticketList = prepareTickets(jira, releaseList);
+        List<Ticket> ticketList;
+        try (var _ = RunMetrics.stage("jira.tickets")) {
+            ticketList = prepareTickets(jira, releaseList, csv);
+        }
         // Git: associa commit alle release
         GitExtraction gitExtraction = new GitExtraction(pmdPath);
         associateCommitsSafe(gitExtraction, releaseList);
@@ -46,7 +55,9 @@ public class DatasetCreation {
 
         // Link ticket-commit + export riassunto
         LOG.info("Data extraction: Tickets Summary");
-        TicketUtils.linkTicketsToCommits(ticketList, releaseList);
+        try (var _ = RunMetrics.stage("git.linkTickets")) {
+            TicketUtils.linkTicketsToCommits(ticketList, releaseList);
+        }
         csv.generateTicketSummary(ticketList);
 
         // Analisi codice per release selezionate
@@ -60,29 +71,47 @@ public class DatasetCreation {
         extractMetricsSafe(releaseToProcess);
 
         // Walk-forward (training/testing)
-        runWalkForwardSafe(projectName, releaseList, ticketList, csv);
+        try (var _ = RunMetrics.stage("walkForward")) {
+            runWalkForwardSafe(projectName, releaseList, ticketList, csv);
+        }
 
         LOG.info("Training set and testing set files generated!");
 
         // Labelling full dataset + ARFF (post-Weka) con TUTTI i ticket
-        labelAndExportFullDatasetSafe(projectName, releaseList, ticketList, releaseToProcess, csv);
+        try (var _ = RunMetrics.stage("fullDataset")) {
+            labelAndExportFullDatasetSafe(projectName, releaseList, ticketList, releaseToProcess, csv);
+        }
     }
 
     /* ==================== Helpers ==================== */
 
-    private static List<Ticket> prepareTickets(JiraExtraction jira, List<Release> releaseList) throws IOException {
+    private static List<Ticket> prepareTickets(JiraExtraction jira, List<Release> releaseList,
+                                               FileCSVGenerator csv) throws IOException {
         List<Ticket> ticketList = jira.fetchTickets(releaseList);
         LOG.info("Data extraction: Tickets List");
-        TicketUtils.fixInconsistentTickets(ticketList, releaseList);
+        Map<String, Map<Ticket, TicketUtils.Rejection>> rejected = new LinkedHashMap<>();
+        rejected.put("fetch", TicketUtils.fixInconsistentTickets(ticketList, releaseList));
         ticketList.sort(Comparator.comparing(Ticket::getResolutionDate));
-        Proportion.calculateProportion(ticketList, releaseList);
+        try (var _ = RunMetrics.stage("proportion")) {
+            Proportion.calculateProportion(ticketList, releaseList);
+        }
         LOG.info("Data extraction: Proportion computed!");
-        TicketUtils.fixInconsistentTickets(ticketList, releaseList);
+        rejected.put("proportion", TicketUtils.fixInconsistentTickets(ticketList, releaseList));
+        logRejections(rejected);
+        csv.generateTicketRejectionReport(rejected);
         return ticketList;
     }
 
+    private static void logRejections(Map<String, Map<Ticket, TicketUtils.Rejection>> rejected) {
+        rejected.forEach((stage, tickets) -> {
+            Map<TicketUtils.Rejection, Long> byReason = tickets.values().stream()
+                    .collect(Collectors.groupingBy(r -> r, () -> new EnumMap<>(TicketUtils.Rejection.class), Collectors.counting()));
+            LOG.log(Level.INFO, "Tickets rejected ({0}): {1} {2}", new Object[]{stage, tickets.size(), byReason});
+        });
+    }
+
     private static void associateCommitsSafe(GitExtraction gitExtraction, List<Release> releaseList) {
-        try {
+        try (var _ = RunMetrics.stage("git.associateCommits")) {
             gitExtraction.associateCommitsToReleases(releaseList);
         } catch (GitAPIException | IOException e) {
             LOG.log(Level.SEVERE, "GitExtraction Error", e);
@@ -129,7 +158,9 @@ public class DatasetCreation {
     private static void analyzeCode(GitExtraction gitExtraction, List<Release> releaseToProcess) throws IOException {
         LOG.info("Data extraction: Extraction class and method");
         for (Release r : releaseToProcess) {
-            gitExtraction.analyzeReleaseCode(r);
+            try (var _ = RunMetrics.stage("git.analyzeRelease", r.getName())) {
+                gitExtraction.analyzeReleaseCode(r);
+            }
             LOG.log(Level.INFO, "Release {0}: founded {1} class with method",
                     new Object[]{r.getName(), r.getJavaClassList().size()});
         }
@@ -137,7 +168,7 @@ public class DatasetCreation {
 
     private static void extractMetricsSafe(List<Release> releaseToProcess) {
         LOG.info("Start metrics extraction");
-        try {
+        try (var _ = RunMetrics.stage("metrics.historical")) {
             Git git = RepoFactory.getGit();
             new MetricsCalculator(git).calculateHistoricalMetrics(releaseToProcess);
             LOG.info("Metrics calculated.");
@@ -169,7 +200,7 @@ public class DatasetCreation {
 
             b.calculate(releaseList, ticketList);
             csv.generateFullDataset(releaseToProcess);
-            new FileARFFGenerator(projectName, 0).csvToARFFFull();
+            new FileARFFGenerator(projectName, 0).generateFullArff(releaseToProcess);
             LOG.info("Full dataset etichettato e rigenerato.");
         } catch (IOException e) {
             LOG.log(Level.SEVERE, "Errore durante il labelling post-Weka", e);
@@ -0,0 +1,214 @@
+package it.project.controllers;
+
+import java.util.Arrays;
+
+/*
+ * Metriche effort-aware di un modello su un test set: l'effort è il LOC ispezionato, i moduli sono ispezionati
+ * in ordine di probabilità di "yes" decrescente (a parità di score, nell'ordine del test set).
+ *
+ * Il ranking è calcolato una volta sola, con un merge sort stabile su indici primitivi, insieme ai ranking
+ * ottimo (buggy per LOC crescente, poi i puliti) e pessimo (puliti, poi buggy per LOC decrescente). Di ogni
+ * ranking si tengono le somme cumulative di LOC e bug; da lì ogni metrica è una ricerca binaria o una scansione:
+ *   - PofB(x):  % di bug trovati ispezionando fino a x del LOC totale; conta anche il modulo che supera la
+ *               soglia (arrotondata al LOC intero), come il vecchio computePofB20;
+ *   - NPofB(x): PofB(x) normalizzato tra ranking pessimo (0) e ottimo (1) allo stesso effort;
+ *   - Popt:     1 - (area ottimo - area modello) / (area ottimo - area pessimo), sulle curve bug%/LOC%;
+ *   - ACC(x):   recall dei buggy ispezionando fino a x del LOC senza superarlo (solo moduli interi nel budget);
+ *   - IFA:      moduli puliti ispezionati prima del primo buggy.
+ * NaN quando la metrica non è definita (nessun bug o LOC totale nullo).
+ */
+final class EffortAwareMetrics {
+    static final double DEFAULT_EFFORT = 0.2;
+
+    private final Curve model;
+    private final Curve optimal;
+    private final Curve worst;
+
+    private EffortAwareMetrics(Curve model, Curve optimal, Curve worst) {
+        this.model = model;
+        this.optimal = optimal;
+        this.worst = worst;
+    }
+
+    /** {@code loc} non negativo, {@code score} senza NaN, {@code buggy} la classe reale; stessa lunghezza. */
+    static EffortAwareMetrics of(int[] loc, double[] score, boolean[] buggy) {
+        final int n = loc.length;
+        int[] order = rankByScore(score);
+        int[] modelLoc = new int[n];
+        boolean[] modelBuggy = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            modelLoc[i] = loc[order[i]];
+            modelBuggy[i] = buggy[order[i]];
+        }
+
+        // ottimo e pessimo dipendono solo dai LOC: buggy e puliti separati, buggy ordinati per LOC
+        int bugs = 0;
+        for (boolean b : buggy) if (b) bugs++;
+        int[] buggyLoc = new int[bugs];
+        int[] cleanLoc = new int[n - bugs];
+        for (int i = 0, b = 0, c = 0; i < n; i++) {
+            if (buggy[i]) buggyLoc[b++] = loc[i];
+            else cleanLoc[c++] = loc[i];
+        }
+        Arrays.sort(buggyLoc);
+
+        int[] optimalLoc = new int[n];
+        boolean[] optimalBuggy = new boolean[n];
+        int[] worstLoc = new int[n];
+        boolean[] worstBuggy = new boolean[n];
+        System.arraycopy(buggyLoc, 0, optimalLoc, 0, bugs);
+        Arrays.fill(optimalBuggy, 0, bugs, true);
+        System.arraycopy(cleanLoc, 0, optimalLoc, bugs, cleanLoc.length);
+        System.arraycopy(cleanLoc, 0, worstLoc, 0, cleanLoc.length);
+        for (int i = 0; i < bugs; i++) worstLoc[n - 1 - i] = buggyLoc[i];
+        Arrays.fill(worstBuggy, cleanLoc.length, n, true);
+
+        return new EffortAwareMetrics(new Curve(modelLoc, modelBuggy), new Curve(optimalLoc, optimalBuggy),
+                new Curve(worstLoc, worstBuggy));
+    }
+
+    double pofB(double effort) {
+        return model.bugsFoundCrossing(effort);
+    }
+
+    double normalizedPofB(double effort) {
+        return normalize(model.bugsFoundCrossing(effort), optimal.bugsFoundCrossing(effort),
+                worst.bugsFoundCrossing(effort));
+    }
+
+    double popt() {
+        return 1.0 - gap();
+    }
+
+    double acc(double effort) {
+        return model.bugsFoundWithin(effort);
+    }
+
+    double ifa() {
+        return model.cleanBeforeFirstBug();
+    }
+
+    /** (area ottimo - area modello) / (area ottimo - area pessimo). */
+    private double gap() {
+        double best = optimal.area();
+        double span = best - worst.area();
+        if (Double.isNaN(span) || span <= 0) return Double.NaN;
+        return (best - model.area()) / span;
+    }
+
+    private static double normalize(double value, double best, double worstValue) {
+        if (Double.isNaN(value) || !(best > worstValue)) return Double.NaN;
+        double normalized = (value - worstValue) / (best - worstValue);
+        return Math.max(0.0, Math.min(1.0, normalized));
+    }
+
+    /** Indici ordinati per score decrescente, stabile (merge sort bottom-up su int[], niente boxing). */
+    static int[] rankByScore(double[] score) {
+        final int n = score.length;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        int[] buffer = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                int l = lo;
+                int r = mid;
+                int k = lo;
+                while (l < mid && r < hi) {
+                    // a destra solo se strettamente maggiore: i pareggi restano nell'ordine originale
+                    buffer[k++] = Double.compare(score[order[r]], score[order[l]]) > 0 ? order[r++] : order[l++];
+                }
+                while (l < mid) buffer[k++] = order[l++];
+                while (r < hi) buffer[k++] = order[r++];
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    /** Somme cumulative di un ranking: cumLoc[k] e cumBugs[k] dopo aver ispezionato i primi k moduli. */
+    private static final class Curve {
+        private final long[] cumLoc;
+        private final int[] cumBugs;
+        private double area = -1;
+
+        Curve(int[] loc, boolean[] buggy) {
+            cumLoc = new long[loc.length + 1];
+            cumBugs = new int[loc.length + 1];
+            for (int i = 0; i < loc.length; i++) {
+                cumLoc[i + 1] = cumLoc[i] + Math.max(0, loc[i]);
+                cumBugs[i + 1] = cumBugs[i] + (buggy[i] ? 1 : 0);
+            }
+        }
+
+        private long totalLoc() {
+            return cumLoc[cumLoc.length - 1];
+        }
+
+        private int totalBugs() {
+            return cumBugs[cumBugs.length - 1];
+        }
+
+        private boolean undefined() {
+            return totalBugs() == 0 || totalLoc() == 0;
+        }
+
+        /** Si ispeziona finché il LOC accumulato è sotto la soglia: il primo k con cumLoc[k] >= soglia. */
+        double bugsFoundCrossing(double effort) {
+            if (undefined()) return Double.NaN;
+            long limit = Math.round(effort * totalLoc());
+            int lo = 0;
+            int hi = cumLoc.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumLoc[mid] >= limit) hi = mid;
+                else lo = mid + 1;
+            }
+            return cumBugs[lo] / (double) totalBugs();
+        }
+
+        /** Solo moduli interamente nel budget: l'ultimo k con cumLoc[k] <= effort * LOC totale. */
+        double bugsFoundWithin(double effort) {
+            if (undefined()) return Double.NaN;
+            double budget = effort * totalLoc();
+            int lo = 0;
+            int hi = cumLoc.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (cumLoc[mid] <= budget) lo = mid;
+                else hi = mid - 1;
+            }
+            return cumBugs[lo] / (double) totalBugs();
+        }
+
+        /** Area sotto la curva (LOC%, bug%) con la regola dei trapezi. */
+        double area() {
+            if (area >= 0) return area;
+            if (undefined()) return Double.NaN;
+            double totalLoc = totalLoc();
+            double totalBugs = totalBugs();
+            double sum = 0.0;
+            for (int k = 1; k < cumLoc.length; k++) {
+                double width = (cumLoc[k] - cumLoc[k - 1]) / totalLoc;
+                sum += width * (cumBugs[k] + cumBugs[k - 1]) / (2.0 * totalBugs);
+            }
+            area = sum;
+            return sum;
+        }
+
+        double cleanBeforeFirstBug() {
+            if (totalBugs() == 0) return Double.NaN;
+            int lo = 1;
+            int hi = cumBugs.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumBugs[mid] >= 1) hi = mid;
+                else lo = mid + 1;
+            }
+            return lo - 1.0;
+        }
+    }
+}
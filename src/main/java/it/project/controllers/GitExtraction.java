@@ -24,7 +24,9 @@ import com.github.javaparser.ast.body.MethodDeclaration;
 import it.project.entities.JavaClass;
 import it.project.entities.JavaMethod;
 import it.project.entities.Release;
+import it.project.utils.ReleaseTimeline;
 import it.project.utils.RepoFactory;
+import it.project.utils.RunMetrics;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.ObjectId;
@@ -48,7 +50,11 @@ public class GitExtraction {
     private final String pmdPath;
 
     public GitExtraction(String pmdPath) throws IOException {
-        this.git = RepoFactory.getGit();
+        this(RepoFactory.getGit(), pmdPath);
+    }
+
+    GitExtraction(Git git, String pmdPath) {
+        this.git = git;
         this.pmdPath = pmdPath;
     }
 
@@ -77,18 +83,21 @@ public class GitExtraction {
         // Ora il codice è disponibile fisicamente nel file system → PMD potrà analizzarlo
         // Avvia PMD
         String realPath = git.getRepository().getWorkTree().getAbsolutePath();
-        runPMDAnalysis(realPath, release.getName());
+        try (var _ = RunMetrics.stage("git.pmd", release.getName())) {
+            runPMDAnalysis(realPath, release.getName());
+        }
 
         // Analisi con JavaParser (come già facevi)
         RevTree tree = lastCommit.getTree();
-        try (TreeWalk treeWalk = new TreeWalk(git.getRepository())) {
+        try (var _ = RunMetrics.stage("git.parseRelease", release.getName());
+             TreeWalk treeWalk = new TreeWalk(git.getRepository())) {
             treeWalk.addTree(tree);
             treeWalk.setRecursive(true);
 
             while (treeWalk.next()) {
                 String path = treeWalk.getPathString();
                 if (path.endsWith(JAVA_EXTENSION) && !path.toLowerCase().contains("/test/")) {
-                    parseJavaFile(treeWalk, path, release);
+                    parseJavaFile(treeWalk.getObjectId(0), path, release);
                 }
             }
         }
@@ -121,6 +130,11 @@ public class GitExtraction {
     }
 
     private void runPMDAnalysis(String projectRootPath, String releaseName) {
+        if (pmdPath == null || pmdPath.isBlank()) {
+            // PMD_PATH vuoto: si usa il report già presente nel working tree (es. repository sintetici)
+            Logger.getAnonymousLogger().log(Level.INFO, "PMD_PATH non impostato: uso pmd-reports/pmd-{0}.xml esistente", releaseName);
+            return;
+        }
         try {
             Logger.getAnonymousLogger().log(Level.INFO, "Eseguo PMD su release: {0}", releaseName);
 
@@ -182,27 +196,20 @@ public class GitExtraction {
         List<RevCommit> allCommits = new ArrayList<>();
         git.log().all().call().forEach(allCommits::add);
         allCommits.sort(Comparator.comparingInt(RevCommit::getCommitTime));
-
-        LocalDateTime previousReleaseDate = null;
-
-        for (Release release : releases) {
-            LocalDateTime currentReleaseDate = release.getDate();
-
-            for (RevCommit commit : allCommits) {
-                LocalDateTime commitDate = LocalDateTime.ofInstant(
-                        Instant.ofEpochSecond(commit.getCommitTime()), ZoneId.systemDefault());
-
-                boolean isInFirstRelease = previousReleaseDate == null && !commitDate.isAfter(currentReleaseDate);
-                boolean isInSubsequentRelease = previousReleaseDate != null
-                        && commitDate.isAfter(previousReleaseDate)
-                        && !commitDate.isAfter(currentReleaseDate);
-
-                if (isInFirstRelease || isInSubsequentRelease) {
-                    release.getCommitList().add(commit);
-                }
+        RunMetrics.count("git.commits", allCommits.size());
+
+        // Ogni commit va nella prima release con data >= commit, cioè nell'intervallo (precedente, corrente]
+        ReleaseTimeline timeline = new ReleaseTimeline(releases);
+        for (RevCommit commit : allCommits) {
+            LocalDateTime commitDate = LocalDateTime.ofInstant(
+                    Instant.ofEpochSecond(commit.getCommitTime()), ZoneId.systemDefault());
+            Release release = timeline.atOrAfter(commitDate);
+            if (release != null) {
+                release.getCommitList().add(commit);
             }
+        }
 
-            previousReleaseDate = currentReleaseDate;
+        for (Release release : releases) {
             Logger.getAnonymousLogger().log(Level.INFO,
                     "Release {0}: find {1} commit.",
                     new Object[]{release.getName(), release.getCommitList().size()});
@@ -269,14 +276,15 @@ public class GitExtraction {
     }
 
 
-    private void parseJavaFile(TreeWalk treeWalk, String path, Release release) throws IOException {
-        ObjectId objectId = treeWalk.getObjectId(0);
+    void parseJavaFile(ObjectId objectId, String path, Release release) throws IOException {
         ObjectLoader loader = git.getRepository().open(objectId);
 
         JavaParser javaParser = new JavaParser();
         ParseResult<CompilationUnit> parseResult = javaParser.parse(loader.openStream());
+        RunMetrics.count("git.filesParsed", 1);
 
         if (!parseResult.isSuccessful() || parseResult.getResult().isEmpty()) {
+            RunMetrics.count("git.parseFailures", 1);
             Logger.getAnonymousLogger().log(Level.WARNING, "Impossibile parsare il file: {0}", path);
             return;
         }
@@ -332,7 +340,7 @@ public class GitExtraction {
         });
     }
 
-    private int calculateLCOM4(ClassOrInterfaceDeclaration c) {
+    int calculateLCOM4(ClassOrInterfaceDeclaration c) {
         List<MethodDeclaration> methods = c.getMethods();
         List<FieldDeclaration> fields = c.getFields();
 
@@ -411,7 +419,7 @@ public class GitExtraction {
             }
         }
     }
-    private int calculateCyclomaticComplexity(MethodDeclaration md) {
+    int calculateCyclomaticComplexity(MethodDeclaration md) {
         // La complessità parte sempre da 1
         AtomicInteger complexity = new AtomicInteger(1);
 
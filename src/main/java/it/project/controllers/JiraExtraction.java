@@ -1,34 +1,102 @@
 package it.project.controllers;
 
+import it.project.entities.JiraIssue;
 import it.project.entities.Release;
 
 import it.project.entities.Ticket;
-import it.project.utils.Json;
-import it.project.utils.ReleaseUtils;
+import it.project.utils.ConfigManager;
+import it.project.utils.JiraClient;
+import it.project.utils.JiraSnapshotStore;
+import it.project.utils.ReleaseTimeline;
 import org.json.JSONObject;
 import org.json.JSONArray;
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class JiraExtraction {
+    private static final Logger LOG = Logger.getLogger(JiraExtraction.class.getName());
+
+    private static final String BUG_JQL = "project=\"%s\"AND\"issueType\"=\"Bug\"AND(\"status\"=\"closed\"OR"
+            + "\"status\"=\"resolved\")AND\"resolution\"=\"fixed\"";
+    private static final String ISSUE_FIELDS = "key,resolutiondate,versions,created,updated";
+    private static final DateTimeFormatter JQL_DATE = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+
+    /**
+     * Sorgente dei dati Jira (JIRA_MODE in configuration.properties):
+     * LIVE     sempre dal server, senza snapshot (default, comportamento storico);
+     * SNAPSHOT dalla snapshot locale se presente, altrimenti dal server salvando la snapshot;
+     *          i ticket nuovi non arrivano finché non si fa un REFRESH (se ne logga l'età);
+     * REFRESH  aggiorna la snapshot: versioni con GET condizionale (ETag), issue solo quelle
+     *          modificate dopo l'ultimo "updated" salvato, insieme ridotto alle chiavi che
+     *          soddisfano ancora la JQL;
+     * OFFLINE  solo snapshot locale, errore se manca.
+     */
+    public enum Mode { LIVE, SNAPSHOT, REFRESH, OFFLINE }
+
     private final Map<LocalDateTime, String> releaseNames;
     private final Map<LocalDateTime, String> releasesID;
     private final List<LocalDateTime> listOfReleaseDates;
     private final String projectName;
+    private final JiraClient client;
+    private final JiraSnapshotStore snapshots;
+    private final Mode mode;
+    private boolean refreshed;
 
     public JiraExtraction(String projectName) {
+        this(projectName, configuredMode());
+    }
+
+    public JiraExtraction(String projectName, Mode mode) {
+        this(projectName, new JiraClient(), new JiraSnapshotStore(), mode);
+    }
+
+    public JiraExtraction(String projectName, JiraClient client, JiraSnapshotStore snapshots, Mode mode) {
         this.projectName = projectName.toUpperCase();
         this.releaseNames = new HashMap<>();
         this.releasesID = new HashMap<>();
         this.listOfReleaseDates = new ArrayList<>();
+        this.client = client;
+        this.snapshots = snapshots;
+        this.mode = mode;
+    }
+
+    /** JIRA_MODE, default live. */
+    public static Mode configuredMode() {
+        return parseMode("JIRA_MODE", ConfigManager.getString("JIRA_MODE", "live"));
+    }
+
+    /**
+     * Modo per i progetti del cold start di Proportion (JIRA_COLD_START_MODE). Se non impostato è quello di
+     * JIRA_MODE, ma REFRESH al posto di LIVE: in LIVE non c'è un'impronta, quindi il P di quei progetti non
+     * sarebbe mai memoizzato e andrebbero riscaricati e rielaborati a ogni estrazione. REFRESH resta
+     * aggiornato con richieste condizionali e incrementali.
+     */
+    public static Mode coldStartMode() {
+        String value = ConfigManager.getString("JIRA_COLD_START_MODE", "").trim();
+        if (!value.isEmpty()) return parseMode("JIRA_COLD_START_MODE", value);
+        Mode mode = configuredMode();
+        return mode == Mode.LIVE ? Mode.REFRESH : mode;
+    }
+
+    private static Mode parseMode(String key, String value) {
+        try {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(key + " = \"" + value.trim()
+                    + "\" non valido in configuration.properties: valori ammessi live, snapshot, refresh, offline", e);
+        }
     }
 
     public List<Release> getReleaseInfo() throws IOException {
         List<Release> releases = new ArrayList<>();
-        String url = "https://issues.apache.org/jira/rest/api/2/project/" + this.projectName;
-        JSONObject json = Json.readJsonFromUrl(url);
+        JSONObject json = projectJson();
         JSONArray versions = json.getJSONArray("versions");
 
         for (int i = 0; i < versions.length(); i++) {
@@ -53,55 +121,137 @@ public class JiraExtraction {
 
     public List<Ticket> fetchTickets(List<Release> releasesList) throws IOException {
         List<Ticket> listOfTickets = new ArrayList<>();
-        int startAt = 0;
-        int maxResults = 1000;
-        int total;
-
-        do {
-            String url = "https://issues.apache.org/jira/rest/api/2/search?jql=project=%22"
-                    + projectName + "%22AND%22issueType%22=%22Bug%22AND(%22status%22=%22closed%22OR"
-                    + "%22status%22=%22resolved%22)AND%22resolution%22=%22fixed%22&fields=key,resolutiondate,versions,created&startAt="
-                    + startAt + "&maxResults=" + maxResults;
-            JSONObject json = Json.readJsonFromUrl(url);
-            JSONArray issues = json.getJSONArray("issues");
-            total = json.getInt("total");
-
-            for (int i = 0; i < Math.min(total - startAt, maxResults); i++) {
-                JSONObject issue = issues.getJSONObject(i);
-                String key = issue.getString("key");
-                JSONObject fields = issue.getJSONObject("fields");
-
-                LocalDateTime creationDate = LocalDateTime.parse(fields.getString("created").substring(0, 16));
-                LocalDateTime resolutionDate = LocalDateTime.parse(fields.getString("resolutiondate").substring(0, 16));
-                List<Release> affectedVersions = getAffectedVersions(fields.getJSONArray("versions"), releasesList);
-
-                Ticket ticket = new Ticket(creationDate, resolutionDate, key);
-                ticket.setAffectedVersionsList(affectedVersions);
-                ticket.setOpeningVersion(ReleaseUtils.fetchVersion(creationDate, releasesList));
-                ticket.setFixedVersion(ReleaseUtils.fetchVersion(resolutionDate, releasesList));
-
-                listOfTickets.add(ticket);
-            }
+        ReleaseTimeline timeline = new ReleaseTimeline(releasesList);
+
+        for (JiraIssue issue : bugIssues()) {
+            String key = issue.getKey();
+            LocalDateTime creationDate = LocalDateTime.parse(issue.getCreated().substring(0, 16));
+            LocalDateTime resolutionDate = LocalDateTime.parse(issue.getResolutionDate().substring(0, 16));
+            List<Release> affectedVersions = timeline.byNames(issue.getVersionNames());
 
-            startAt += maxResults;
-        } while (startAt < total);
+            Ticket ticket = new Ticket(creationDate, resolutionDate, key);
+            ticket.setAffectedVersionsList(affectedVersions);
+            ticket.setOpeningVersion(timeline.atOrAfter(creationDate));
+            ticket.setFixedVersion(timeline.atOrAfter(resolutionDate));
+
+            listOfTickets.add(ticket);
+        }
 
         return listOfTickets;
     }
 
-    private List<Release> getAffectedVersions(JSONArray affectedVersions, List<Release> releasesList) {
-        List<Release> avReleaseList = new ArrayList<>();
-        if (affectedVersions == null || affectedVersions.isEmpty())
-            return avReleaseList;
+    /**
+     * Impronta dei dati Jira da cui derivano release e ticket, per memoizzare i calcoli a valle.
+     * In REFRESH aggiorna prima la snapshot (una sola volta per istanza); null in LIVE o se la
+     * snapshot manca, cioè quando il risultato non è riproducibile.
+     */
+    public String snapshotFingerprint() throws IOException {
+        if (mode == Mode.LIVE) return null;
+        if (mode == Mode.REFRESH && !refreshed) {
+            projectJson();
+            bugIssues();
+        }
+        return snapshots.fingerprint(projectName);
+    }
 
-        for (int k = 0; k < affectedVersions.length(); k++) {
-            String av = affectedVersions.getJSONObject(k).getString("name");
-            for (Release release : releasesList) {
-                if (av.equals(release.getName()))
-                    avReleaseList.add(release);
-            }
+    /* ==================== Sorgente: server / snapshot ==================== */
+
+    /** Dopo il primo refresh la snapshot è aggiornata: le letture successive non tornano sul server. */
+    private Mode effectiveMode() {
+        return (mode == Mode.REFRESH && refreshed) ? Mode.SNAPSHOT : mode;
+    }
+
+    private JSONObject projectJson() throws IOException {
+        boolean cached = snapshots.hasProject(projectName);
+        switch (effectiveMode()) {
+            case LIVE:
+                return client.getProject(projectName, null).getJson();
+            case OFFLINE:
+                return snapshots.readProject(projectName);
+            case SNAPSHOT:
+                if (cached) return snapshots.readProject(projectName);
+                break;
+            case REFRESH:
+                if (cached) {
+                    JiraClient.Response response = client.getProject(projectName, snapshots.projectEtag(projectName));
+                    if (response.isNotModified()) {
+                        LOG.log(Level.INFO, "Versioni {0} invariate (ETag)", projectName);
+                        return snapshots.readProject(projectName);
+                    }
+                    snapshots.writeProject(projectName, response.getJson(), response.getEtag());
+                    return response.getJson();
+                }
+                break;
+        }
+        JiraClient.Response response = client.getProject(projectName, null);
+        snapshots.writeProject(projectName, response.getJson(), response.getEtag());
+        return response.getJson();
+    }
+
+    private List<JiraIssue> bugIssues() throws IOException {
+        String jql = String.format(BUG_JQL, projectName);
+        boolean cached = snapshots.hasIssues(projectName);
+        switch (effectiveMode()) {
+            case LIVE:
+                return client.searchIssues(jql, ISSUE_FIELDS);
+            case OFFLINE:
+                return snapshots.readIssues(projectName);
+            case SNAPSHOT:
+                if (cached) {
+                    // dopo un REFRESH la snapshot è appena aggiornata: l'avviso vale solo per JIRA_MODE=snapshot
+                    if (mode == Mode.SNAPSHOT) warnSnapshotAge();
+                    return snapshots.readIssues(projectName);
+                }
+                break;
+            case REFRESH:
+                refreshed = true;
+                String updatedMax = snapshots.issuesUpdatedMax(projectName);
+                if (cached && updatedMax != null) return refreshIssues(jql, updatedMax);
+                break;
+        }
+        List<JiraIssue> issues = client.searchIssues(jql, ISSUE_FIELDS);
+        snapshots.writeIssues(projectName, issues);
+        return issues;
+    }
+
+    /**
+     * Scarica solo le issue modificate dopo l'ultimo "updated" salvato e le sostituisce per chiave nella
+     * snapshot. La data della JQL è al minuto e nel fuso del server, quindi si riparte da un giorno prima.
+     * L'insieme delle issue è quello attuale della JQL (una ricerca con il solo campo key): quelle che non
+     * la soddisfano più, ad esempio riaperte, escono dalla snapshot.
+     */
+    private List<JiraIssue> refreshIssues(String jql, String updatedMax) throws IOException {
+        LocalDateTime since = LocalDateTime.parse(updatedMax.substring(0, 16)).minusDays(1);
+        List<JiraIssue> changed = client.searchIssues(
+                jql + "AND\"updated\">=\"" + since.format(JQL_DATE) + "\"", ISSUE_FIELDS);
+        Set<String> current = new HashSet<>();
+        for (JiraIssue issue : client.searchIssues(jql, "key")) current.add(issue.getKey());
+
+        Map<String, JiraIssue> byKey = new LinkedHashMap<>();
+        int removed = 0;
+        for (JiraIssue issue : snapshots.readIssues(projectName)) {
+            if (current.contains(issue.getKey())) byKey.put(issue.getKey(), issue);
+            else removed++;
+        }
+        for (JiraIssue issue : changed) byKey.put(issue.getKey(), issue);
+
+        List<JiraIssue> issues = new ArrayList<>(byKey.values());
+        snapshots.writeIssues(projectName, issues);
+        LOG.log(Level.INFO, "Snapshot issue {0}: {1} aggiornate, {2} rimosse, {3} totali",
+                new Object[]{projectName, changed.size(), removed, issues.size()});
+        return issues;
+    }
+
+    private void warnSnapshotAge() throws IOException {
+        Instant fetchedAt = snapshots.fetchedAt(projectName);
+        if (fetchedAt == null) {
+            LOG.log(Level.WARNING, "Snapshot Jira {0} di data ignota: i ticket nuovi non vengono scaricati "
+                    + "(JIRA_MODE=refresh per aggiornarla)", projectName);
+            return;
         }
-        return avReleaseList;
+        long days = Duration.between(fetchedAt, Instant.now()).toDays();
+        LOG.log(Level.WARNING, "Snapshot Jira {0} del {1} ({2} giorni fa): i ticket nuovi non vengono scaricati "
+                + "(JIRA_MODE=refresh per aggiornarla)", new Object[]{projectName, fetchedAt, days});
     }
 
     private void addRelease(String strDate, String name, String id) {
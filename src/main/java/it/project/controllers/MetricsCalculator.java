@@ -16,6 +16,7 @@ import it.project.entities.JavaMethod;
 import it.project.entities.Release;
 import it.project.entities.Smell;
 import it.project.utils.PmdParser;
+import it.project.utils.RunMetrics;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
@@ -49,44 +50,57 @@ public class MetricsCalculator {
         Map<String, Set<String>> previousAuthors = new HashMap<>();
 
         for (Release release : releases) {
-            Logger.getAnonymousLogger().log(Level.INFO, "Calcolo metriche per release {0}...", release.getName());
+            try (var _ = RunMetrics.stage("metrics.release", release.getName())) {
+                previousAuthors = calculateReleaseMetrics(release, previousAuthors);
+            }
+        }
+    }
 
-            File reportFile = new File(git.getRepository().getWorkTree(), "pmd-reports/pmd-" + release.getName() + ".xml");
-            Path repoRoot = git.getRepository().getWorkTree().toPath().toAbsolutePath();
+    // Metriche di una release; restituisce gli autori per file, base della release successiva
+    private Map<String, Set<String>> calculateReleaseMetrics(Release release, Map<String, Set<String>> previousAuthors) throws IOException {
+        Logger.getAnonymousLogger().log(Level.INFO, "Calcolo metriche per release {0}...", release.getName());
 
-            // 0) PRECOMPUTE una volta
-            Map<String, List<Smell>> smellsMap = new PmdParser().parseReport(reportFile, repoRoot.toFile());
-            List<CommitData> commitDataList = precomputeCommitData(release.getCommitList());
+        File reportFile = new File(git.getRepository().getWorkTree(), "pmd-reports/pmd-" + release.getName() + ".xml");
+        Path repoRoot = git.getRepository().getWorkTree().toPath().toAbsolutePath();
 
-            Map<String, Set<String>> currentAuthors = new HashMap<>();
-            Map<String, Integer> fanInMap = computeFanInMapForRelease(repoRoot, release.getJavaClassList());
+        // 0) PRECOMPUTE una volta
+        Map<String, List<Smell>> smellsMap = new PmdParser().parseReport(reportFile, repoRoot.toFile());
+        List<CommitData> commitDataList;
+        try (var _ = RunMetrics.stage("metrics.diffCommits", release.getName())) {
+            commitDataList = precomputeCommitData(release.getCommitList());
+        }
 
-            for (JavaClass javaClass : release.getJavaClassList()) {
-                String relativePath = javaClass.getPath();
-                List<Smell> smellsForFile = smellsMap.getOrDefault(relativePath, Collections.emptyList());
+        Map<String, Set<String>> currentAuthors = new HashMap<>();
+        Map<String, Integer> fanInMap;
+        try (var _ = RunMetrics.stage("metrics.fanIn", release.getName())) {
+            fanInMap = computeFanInMapForRelease(repoRoot, release.getJavaClassList());
+        }
 
-                for (JavaMethod javaMethod : javaClass.getMethods()) {
-                    // 1) metriche storico-lineari con commit precomputati (usa relativePath)
-                    calculateMetricsForMethod(javaMethod, relativePath, commitDataList, previousAuthors, currentAuthors);
+        for (JavaClass javaClass : release.getJavaClassList()) {
+            String relativePath = javaClass.getPath();
+            List<Smell> smellsForFile = smellsMap.getOrDefault(relativePath, Collections.emptyList());
 
-                    // 2) smells (lookup in mappa già pronta)
-                    int nSmells = countSmellsForMethod(smellsForFile, javaMethod);
-                    javaMethod.setnSmells(nSmells);
+            for (JavaMethod javaMethod : javaClass.getMethods()) {
+                // 1) metriche storico-lineari con commit precomputati (usa relativePath)
+                calculateMetricsForMethod(javaMethod, relativePath, commitDataList, previousAuthors, currentAuthors);
 
-                    // 3) fan-in (lookup)
-                    javaMethod.setFanIn(fanInMap.getOrDefault(
-                            makeKey(javaClass.getPath(), javaMethod.getName(), javaMethod.getSignature()),
-                            0
-                    ));
-                }
-            }
+                // 2) smells (lookup in mappa già pronta)
+                int nSmells = countSmellsForMethod(smellsForFile, javaMethod);
+                javaMethod.setnSmells(nSmells);
 
-            previousAuthors = currentAuthors;
+                // 3) fan-in (lookup)
+                javaMethod.setFanIn(fanInMap.getOrDefault(
+                        makeKey(javaClass.getPath(), javaMethod.getName(), javaMethod.getSignature()),
+                        0
+                ));
+            }
         }
+
+        return currentAuthors;
     }
 
 
-    private int countSmellsForMethod(List<Smell> smells, JavaMethod method) {
+    int countSmellsForMethod(List<Smell> smells, JavaMethod method) {
         int count = 0;
         int start = method.getStartLine();
         int end = method.getEndLine();
@@ -147,13 +161,13 @@ public class MetricsCalculator {
         currentAuthors.put(methodId, authors);
     }
 
-    private static class CommitImpact {
+    static final class CommitImpact {
         boolean touched;
         int churn;
         int added;
     }
 
-    private CommitImpact calculateImpactForCommit(List<Edit> edits, int startLine, int endLine) {
+    CommitImpact calculateImpactForCommit(List<Edit> edits, int startLine, int endLine) {
         CommitImpact impact = new CommitImpact();
         for (Edit e : edits) {
             int changeStart = e.getBeginB();
@@ -174,6 +188,7 @@ public class MetricsCalculator {
         for (Path p : filesToParse) {
             if (safeIsJavaFile(p)) {
                 var cu = parseQuietly(p);
+                RunMetrics.count("metrics.filesParsed", 1);
                 if (cu != null) cuCache.put(p, cu);
             }
         }
@@ -250,6 +265,7 @@ public class MetricsCalculator {
             for (RevCommit c : commits) {
                 if (c.getParentCount() == 0) continue;
                 RevCommit p = c.getParent(0);
+                RunMetrics.count("metrics.commitsDiffed", 1);
 
                 var editsByPath = new HashMap<String, List<Edit>>();
                 for (DiffEntry de : df.scan(p.getTree(), c.getTree())) {
@@ -0,0 +1,82 @@
+package it.project.controllers;
+
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.classifiers.Evaluation;
+import weka.classifiers.misc.InputMappedClassifier;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinTask;
+
+/*
+ * k-fold cross-validation con i fold addestrati in parallelo, equivalente a Evaluation.crossValidateModel.
+ *
+ * Weka esegue, per ogni fold in ordine: trainCV (che consuma il Random) → setPriors → build → evaluateModel.
+ * Qui gli split vengono costruiti prima, in sequenza e con lo stesso Random, così sono identici a quelli di
+ * Weka; build e predizione dei fold sono task fork/join (dentro il pool della griglia usano lo stesso pool,
+ * altrimenti il common pool); infine le distribuzioni vengono registrate nell'Evaluation nello stesso ordine
+ * della versione sequenziale (priors del fold, poi le istanze di test), quindi tutte le statistiche coincidono.
+ *
+ * Unica differenza: il numero di fold non viene registrato nell'Evaluation (campo protetto), cosa che conta
+ * solo per l'intestazione di toSummaryString. Classe numerica e InputMappedClassifier passano da Weka.
+ */
+final class ParallelCrossValidation {
+
+    private ParallelCrossValidation() {}
+
+    private static final class Fold {
+        final Instances train;
+        final Instances test;
+        Fold(Instances train, Instances test) {
+            this.train = train;
+            this.test = test;
+        }
+    }
+
+    static void crossValidateModel(Evaluation eval, Classifier prototype, Instances dataset,
+                                   int numFolds, Random random) throws Exception {
+        if (!dataset.classAttribute().isNominal() || prototype instanceof InputMappedClassifier) {
+            eval.crossValidateModel(prototype, dataset, numFolds, random);
+            return;
+        }
+
+        Instances data = new Instances(dataset);
+        data.randomize(random);
+        data.stratify(numFolds);
+        List<Fold> folds = new ArrayList<>(numFolds);
+        for (int i = 0; i < numFolds; i++) {
+            folds.add(new Fold(data.trainCV(numFolds, i, random), data.testCV(numFolds, i)));
+        }
+
+        List<ForkJoinTask<double[][]>> tasks = new ArrayList<>(numFolds);
+        for (Fold fold : folds) {
+            tasks.add(ForkJoinTask.adapt(() -> predictFold(prototype, fold)));
+        }
+        try {
+            ForkJoinTask.invokeAll(tasks);
+        } catch (RuntimeException e) {
+            // adapt(Callable) incapsula le eccezioni checked: rilancia quella del classificatore
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+
+        for (int i = 0; i < numFolds; i++) {
+            Fold fold = folds.get(i);
+            double[][] distributions = tasks.get(i).join();
+            eval.setPriors(fold.train);
+            for (int j = 0; j < fold.test.numInstances(); j++) {
+                eval.evaluateModelOnceAndRecordPrediction(distributions[j], fold.test.instance(j));
+            }
+        }
+    }
+
+    /** Addestra una copia del prototipo sul fold e predice il test come Evaluation.evaluateModel (classe nascosta). */
+    private static double[][] predictFold(Classifier prototype, Fold fold) throws Exception {
+        Classifier model = AbstractClassifier.makeCopy(prototype);
+        model.buildClassifier(fold.train);
+        return PredictionMatrix.distributions(model, fold.test);
+    }
+}
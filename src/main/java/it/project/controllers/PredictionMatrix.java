@@ -0,0 +1,87 @@
+package it.project.controllers;
+
+import weka.classifiers.Classifier;
+import weka.classifiers.Evaluation;
+import weka.core.BatchPredictor;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+/*
+ * Distribuzioni di un modello su un test set, calcolate una volta sola.
+ *
+ * Le predizioni si ottengono come in Evaluation.evaluateModel: distributionsForInstances se il modello è un
+ * BatchPredictor efficiente, altrimenti distributionForInstance istanza per istanza, sempre con la classe
+ * nascosta. Da questa matrice derivano tutte le metriche della cella: recordInto riempie l'Evaluation
+ * (stesse statistiche di evaluateModel), PofB20 legge la probabilità della classe positiva, il CSV delle
+ * predizioni legge distribuzione e classe predetta. Prima lo stesso test set veniva valutato tre volte.
+ */
+final class PredictionMatrix {
+
+    private final Instances data;
+    private final double[][] distributions;
+
+    private PredictionMatrix(Instances data, double[][] distributions) {
+        this.data = data;
+        this.distributions = distributions;
+    }
+
+    static PredictionMatrix score(Classifier model, Instances data) throws Exception {
+        return new PredictionMatrix(data, distributions(model, data));
+    }
+
+    /** Distribuzioni del modello (già addestrato) sulle istanze, con la classe nascosta come fa Evaluation. */
+    static double[][] distributions(Classifier model, Instances data) throws Exception {
+        if (model instanceof BatchPredictor batch && batch.implementsMoreEfficientBatchPrediction()) {
+            Instances masked = new Instances(data);
+            for (int j = 0; j < masked.numInstances(); j++) {
+                masked.instance(j).setClassMissing();
+            }
+            return batch.distributionsForInstances(masked);
+        }
+
+        double[][] distributions = new double[data.numInstances()][];
+        for (int j = 0; j < distributions.length; j++) {
+            Instance copy = (Instance) data.instance(j).copy();
+            copy.setDataset(data);
+            copy.setClassMissing();
+            distributions[j] = model.distributionForInstance(copy);
+        }
+        return distributions;
+    }
+
+    int size() {
+        return distributions.length;
+    }
+
+    double[] distribution(int i) {
+        return distributions[i];
+    }
+
+    /** Probabilità della classe {@code cls}; NaN se la distribuzione non ha quell'indice. */
+    double probability(int i, int cls) {
+        double[] dist = distributions[i];
+        return cls < dist.length ? dist[cls] : Double.NaN;
+    }
+
+    /** Come AbstractClassifier.classifyInstance su classe nominale: argmax, missing se la distribuzione è tutta zero. */
+    double classification(int i) {
+        double[] dist = distributions[i];
+        double max = 0;
+        int maxIndex = 0;
+        for (int c = 0; c < dist.length; c++) {
+            if (dist[c] > max) {
+                maxIndex = c;
+                max = dist[c];
+            }
+        }
+        return max > 0 ? maxIndex : Utils.missingValue();
+    }
+
+    /** Registra le predizioni nell'Evaluation nell'ordine del test set, come evaluateModel. */
+    void recordInto(Evaluation eval) throws Exception {
+        for (int i = 0; i < distributions.length; i++) {
+            eval.evaluateModelOnceAndRecordPrediction(distributions[i], data.instance(i));
+        }
+    }
+}
@@ -2,22 +2,43 @@ package it.project.controllers;
 
 import it.project.entities.Release;
 import it.project.entities.Ticket;
+import it.project.utils.ConfigManager;
+import it.project.utils.JiraSnapshotStore;
 import it.project.utils.ProjectNamesEnum;
+import it.project.utils.ProportionEstimator;
+import it.project.utils.RunMetrics;
 import it.project.utils.TicketUtils;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class Proportion {
+   private static final Logger LOG = Logger.getLogger(Proportion.class.getName());
    private static final int THRESHOLD = 5;
+   private static final String P_SUFFIX = ".p";
+   private static final String FINGERPRINT_SUFFIX = ".fingerprint";
+   // versione del calcolo di P (computeP, fixInconsistentTickets): cambiandola si invalida la cache cold start
+   private static final String P_ALGORITHM = "p-v1";
 
    private Proportion(){}
 
     /* Proportion formula used: P = (FV-IV)/(FV-OV) */
     public static void calculateProportion(List<Ticket> fixedTicketList, List<Release> releaseList) throws IOException {
-        List<Ticket> ticketListToProportion = new ArrayList<>();    // list to put ticket used with proportion
-        float pColdStart = coldStartProportion();
+        // P dei ticket con IV, aggiornato ticket per ticket secondo PROPORTION_STRATEGY
+        ProportionEstimator estimator = ProportionEstimator.configured(THRESHOLD, coldStartProportion());
 
         for (Ticket ticket : fixedTicketList) {
             /* Check if ticket has an injected version
@@ -25,26 +46,16 @@ public class Proportion {
             * Else it hasn't: we can use proportion for estimate IV
              */
             if (ticket.getInjectedVersion() != null) {
-                ticketListToProportion.add(ticket);
+                estimator.add(computeP(ticket));
             }
             /* Compute proportion */
             else {
-                computeProportion(ticket, ticketListToProportion, releaseList, pColdStart);
+                computeProportion(ticket, releaseList, estimator.estimate());
             }
         }
     }
 
-    private static void computeProportion(Ticket ticket, List<Ticket> ticketListProp, List<Release> releaseList, float pColdStart) {
-        float p;
-
-        //If there aren't enough ticket with IV, use cold start for estimate IV
-        if (ticketListProp.size() < THRESHOLD) {
-            p = pColdStart;
-        }
-        //Else use increment for estimate IV
-        else {
-            p = incrementProportion(ticketListProp);
-        }
+    private static void computeProportion(Ticket ticket, List<Release> releaseList, float p) {
         settingIV(ticket, releaseList, p);
         settingAV(ticket, releaseList);
     }
@@ -79,26 +90,6 @@ public class Proportion {
         ticket.setInjectedVersion(releaseList.get(iv-1));
     }
 
-    //We use increment for estimate P (we use the IV of other ticket)
-    private static float incrementProportion(List<Ticket> list) {
-        List<Float> proportionValue = new ArrayList<>();
-        float pIncrement;
-        float p;
-        float pSum = 0;
-
-        for (Ticket ticket : list) {
-            p = computeP(ticket);
-            proportionValue.add(p);
-        }
-
-        for (Float pValue : proportionValue) {
-            pSum += pValue;
-        }
-        pIncrement = pSum/(proportionValue.size());
-
-        return pIncrement;
-    }
-
     //Compute P:
     private static float computeP(Ticket ticket) {
         /* Check if FV=OV then set FV-OV=1 */
@@ -110,44 +101,116 @@ public class Proportion {
         return (ticket.getFixedVersion().getIndex() - ticket.getInjectedVersion().getIndex()) * 1.0f/(ticket.getFixedVersion().getIndex()-ticket.getOpeningVersion().getIndex());
     }
 
+    /*
+     * Cold start: media dei P medi degli altri progetti. Il P di ciascun progetto dipende solo dalla
+     * sua snapshot Jira e dal calcolo, quindi viene salvato in JIRA_SNAPSHOT_DIR/cold_start_proportion.properties insieme
+     * all'impronta della snapshot e a P_ALGORITHM, e ricalcolato (in parallelo tra i progetti) solo quando uno dei due cambia.
+     * I progetti sono letti con JiraExtraction.coldStartMode(): con JIRA_MODE = live si usa refresh, che ha un'impronta.
+     */
     private static float coldStartProportion() throws IOException {
+        File cacheFile = coldStartCacheFile();
+        Properties cache = loadColdStartCache(cacheFile);
+        ProjectNamesEnum[] projects = ProjectNamesEnum.values();
+
         List<Float> proportionValueProjects = new ArrayList<>();    // List for other projects
-        float p;
-        float pColdStart;
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(projects.length,
+                Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<Float>> futures = new ArrayList<>();
+            for (ProjectNamesEnum name : projects) {
+                futures.add(pool.submit(() -> projectProportion(name.toString(), cache)));
+            }
+            for (Future<Float> f : futures) {
+                proportionValueProjects.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Calcolo della proportion cold start interrotto", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Errore nel calcolo della proportion cold start", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        saveColdStartCache(cacheFile, cache);
 
-        for (ProjectNamesEnum name : ProjectNamesEnum.values()) {
-            float pSum = 0;
-            List<Float> proportionValue = new ArrayList<>();    // List for single project
+        float pSum = 0;
+        for (Float P_valueTotal : proportionValueProjects) {
+            pSum += P_valueTotal;
+        }
 
-            JiraExtraction jira = new JiraExtraction(name.toString());
+        return pSum/(proportionValueProjects.size());
+    }
 
-            List<Release> releaseList = jira.getReleaseInfo();  // fetch all project's releases
+    //P medio di un progetto: riusa il valore in cache se la snapshot Jira non è cambiata
+    private static float projectProportion(String projectName, Properties cache) throws IOException {
+        JiraExtraction jira = new JiraExtraction(projectName, JiraExtraction.coldStartMode());
+        String cacheKey = cacheKey(jira.snapshotFingerprint());
+        String cachedP = cache.getProperty(projectName + P_SUFFIX);
+        if (cacheKey != null && cachedP != null
+                && cacheKey.equals(cache.getProperty(projectName + FINGERPRINT_SUFFIX))) {
+            LOG.log(Level.INFO, "Proportion cold start di {0} dalla cache: {1}", new Object[]{projectName, cachedP});
+            RunMetrics.hit("proportion.coldStart");
+            return Float.parseFloat(cachedP);
+        }
 
-            List<Ticket> ticketList = jira.fetchTickets(releaseList);  // fetch all project's list
-            TicketUtils.fixInconsistentTickets(ticketList, releaseList);  // fix tickets inconsistency
-            ticketList.removeIf(ticket -> ticket.getInjectedVersion() == null);
+        RunMetrics.miss("proportion.coldStart");
+        float p;
+        float pSum = 0;
+        List<Float> proportionValue = new ArrayList<>();    // List for single project
 
-            for (Ticket ticket : ticketList) {
-                p = computeP(ticket);
-                proportionValue.add(p);
-            }
+        List<Release> releaseList = jira.getReleaseInfo();  // fetch all project's releases
 
-            for (Float pValue : proportionValue) {
-                pSum += pValue;
-            }
+        List<Ticket> ticketList = jira.fetchTickets(releaseList);  // fetch all project's list
+        TicketUtils.fixInconsistentTickets(ticketList, releaseList);  // fix tickets inconsistency
+        ticketList.removeIf(ticket -> ticket.getInjectedVersion() == null);
 
-            proportionValueProjects.add(pSum/(proportionValue.size()));
+        for (Ticket ticket : ticketList) {
+            p = computeP(ticket);
+            proportionValue.add(p);
         }
 
-        float pSum = 0;
-        for (Float P_valueTotal : proportionValueProjects) {
-            pSum += P_valueTotal;
+        for (Float pValue : proportionValue) {
+            pSum += pValue;
+        }
+        float projectP = pSum/(proportionValue.size());
+
+        // impronta dopo il fetch: al primo run in SNAPSHOT è il fetch a creare la snapshot
+        String computedKey = cacheKey(jira.snapshotFingerprint());
+        if (computedKey != null) {
+            synchronized (cache) {
+                cache.setProperty(projectName + P_SUFFIX, Float.toString(projectP));
+                cache.setProperty(projectName + FINGERPRINT_SUFFIX, computedKey);
+            }
         }
-        pColdStart = pSum/(proportionValueProjects.size());
+        return projectP;
+    }
+
+    private static String cacheKey(String fingerprint) {
+        return fingerprint == null ? null : P_ALGORITHM + ":" + fingerprint;
+    }
 
-        return pColdStart;
+    private static File coldStartCacheFile() {
+        String dir = ConfigManager.getString("JIRA_SNAPSHOT_DIR", JiraSnapshotStore.DEFAULT_DIRECTORY);
+        return new File(dir, "cold_start_proportion.properties");
     }
 
+    private static Properties loadColdStartCache(File file) throws IOException {
+        Properties cache = new Properties();
+        if (file.isFile()) {
+            try (Reader r = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                cache.load(r);
+            }
+        }
+        return cache;
+    }
 
+    private static void saveColdStartCache(File file, Properties cache) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) Files.createDirectories(dir.toPath());
+        try (Writer w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            cache.store(w, "Proportion cold start per progetto (P medio + impronta della snapshot Jira)");
+        }
+    }
 
 }
@@ -0,0 +1,84 @@
+package it.project.controllers;
+
+import weka.attributeSelection.ASEvaluation;
+import weka.attributeSelection.CfsSubsetEval;
+import weka.attributeSelection.SubsetEvaluator;
+import weka.core.Instances;
+
+import java.util.BitSet;
+
+/*
+ * CfsSubsetEval condiviso tra le ricerche (forward, backward, best-first) sullo stesso training set.
+ *
+ * buildEvaluator di CFS discretizza il dataset e prepara la matrice di correlazione: è la parte più cara
+ * di una selezione e il risultato non dipende dalla ricerca. Qui viene costruito una volta sola, con la
+ * matrice precalcolata per intero: così evaluateSubset e postProcess leggono soltanto (le correlazioni
+ * lazy di Weka scrivono nella matrice) e le ricerche possono usarlo in parallelo. Ogni AttributeSelection
+ * riceve un proprio adapter (newAdapter): il suo buildEvaluator prende il CFS condiviso invece di
+ * ricostruirlo, clean non lo svuota. Le correlazioni sono le stesse del calcolo lazy, quindi anche
+ * gli attributi selezionati.
+ */
+final class SharedCfsEvaluator {
+
+    private final CfsSubsetEval template;
+    private CfsSubsetEval built;
+
+    SharedCfsEvaluator(CfsSubsetEval template) {
+        this.template = template;
+    }
+
+    /** Configurazione dell'evaluator, per le chiavi di cache (senza il flag di precalcolo). */
+    CfsSubsetEval template() {
+        return template;
+    }
+
+    ASEvaluation newAdapter() {
+        return new Adapter(this);
+    }
+
+    private synchronized CfsSubsetEval get(Instances train) throws Exception {
+        if (built == null) {
+            CfsSubsetEval cfs = (CfsSubsetEval) ASEvaluation.makeCopies(template, 1)[0];
+            cfs.setPreComputeCorrelationMatrix(true);
+            cfs.buildEvaluator(train);
+            built = cfs;
+        }
+        return built;
+    }
+
+    private static final class Adapter extends ASEvaluation implements SubsetEvaluator {
+        private static final long serialVersionUID = 1L;
+
+        private final transient SharedCfsEvaluator shared;
+        private transient CfsSubsetEval cfs;
+
+        Adapter(SharedCfsEvaluator shared) {
+            this.shared = shared;
+        }
+
+        @Override
+        public void buildEvaluator(Instances data) throws Exception {
+            cfs = shared.get(data);
+        }
+
+        @Override
+        public double evaluateSubset(BitSet subset) throws Exception {
+            return cfs.evaluateSubset(subset);
+        }
+
+        @Override
+        public int[] postProcess(int[] attributeSet) throws Exception {
+            return cfs.postProcess(attributeSet);
+        }
+
+        @Override
+        public void clean() {
+            // il CFS condiviso serve ancora alle altre ricerche
+        }
+
+        @Override
+        public String toString() {
+            return cfs == null ? shared.template.toString() : cfs.toString();
+        }
+    }
+}
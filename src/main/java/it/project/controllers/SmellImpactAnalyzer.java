@@ -1,13 +1,15 @@
 package it.project.controllers;
 
 
+import it.project.utils.CompressedIO;
 import it.project.utils.FileCSVGenerator;
+import it.project.utils.RunMetrics;
 import weka.classifiers.Classifier;
 import weka.core.Instance;
 import weka.core.Instances;
 import weka.core.Utils;
-import weka.core.converters.ConverterUtils.DataSource;
 
+import java.io.File;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.logging.Level;
@@ -72,16 +74,26 @@ public class SmellImpactAnalyzer {
         }
 
         // 4) Allena il modello su A (ma bilanciando SOLO una copia per il training)
-        Classifier model = buildModelWithUnderSampling(prototype, datasetA, csvGen, ratio);
+        Classifier model;
+        try (var _ = RunMetrics.stage("smellImpact.train")) {
+            model = buildModelWithUnderSampling(prototype, datasetA, csvGen, ratio);
+        }
 
         // 5) Calcola metriche sintetiche su A, B+, B, C
-        PredictionStats statsA     = predictStats(datasetA, model);
-        PredictionStats statsBPlus = predictStats(datasetBPlus, model);
-        PredictionStats statsB     = predictStats(datasetB, model);
-        PredictionStats statsC     = predictStats(datasetC, model);
-
-        // 6) Effetto “prevenibile” (B+ vs B)
-        PreventableStats prevent = compareBPlusVsB(datasetBPlus, datasetB, model);
+        PredictionStats statsA;
+        PredictionStats statsBPlus;
+        PredictionStats statsB;
+        PredictionStats statsC;
+        PreventableStats prevent;
+        try (var _ = RunMetrics.stage("smellImpact.predict")) {
+            statsA     = predictStats(datasetA, model);
+            statsBPlus = predictStats(datasetBPlus, model);
+            statsB     = predictStats(datasetB, model);
+            statsC     = predictStats(datasetC, model);
+
+            // 6) Effetto “prevenibile” (B+ vs B)
+            prevent = compareBPlusVsB(datasetBPlus, datasetB, model);
+        }
 
         // 7) Stampa riepiloghi
         printSummaryTable(
@@ -115,8 +127,7 @@ public class SmellImpactAnalyzer {
     }
 
     private Instances loadArff(String path) throws Exception {
-        DataSource ds = new DataSource(path);
-        return ds.getDataSet();
+        return CompressedIO.loadInstances(new File(path));
     }
 
     private void ensureClassSet(Instances data) {
@@ -188,7 +199,7 @@ public class SmellImpactAnalyzer {
         return Math.min(1, data.classAttribute().numValues() - 1);
     }
 
-    private PredictionStats predictStats(Instances data, Classifier model) throws Exception {
+    PredictionStats predictStats(Instances data, Classifier model) throws Exception {
         int clsYes = positiveIndex(data);
 
         long actualYes = 0;
@@ -284,7 +295,7 @@ public class SmellImpactAnalyzer {
 
     /* ================ DTO interni ================ */
 
-    private static class PredictionStats {
+    static class PredictionStats {
         final String name;
         final int size;
         final long actualYes;
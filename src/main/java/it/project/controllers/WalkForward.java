@@ -2,11 +2,15 @@ package it.project.controllers;
 
 import it.project.entities.Release;
 import it.project.entities.Ticket;
+import it.project.utils.ConfigManager;
 import it.project.utils.FileARFFGenerator;
 import it.project.utils.FileCSVGenerator;
+import it.project.utils.RunMetrics;
+import it.project.utils.TrainingSetStore;
 import org.eclipse.jgit.api.Git;
 
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -33,67 +37,89 @@ public class WalkForward {
         int totalReleases = fullReleaseList.size();
         int loopLimit = (int) Math.round(totalReleases * 0.34);
 
-        for(int i = 1; i < loopLimit; i++){
-            int trainingSetLastIndex = i;
-            int testingSetIndex = i + 1;
-            Logger.getAnonymousLogger().log(Level.INFO, "--- Iteration {0}: Training on releases 1-{1}, Testing on release {2} ---", new Object[]{i, trainingSetLastIndex, testingSetIndex});
-
-            //Training:
-            //1. Select releases for training:
-            final int lastTrainIndex = trainingSetLastIndex;
-            List<Release> trainingReleases = fullReleaseList.stream()
-                    .filter(r -> r.getIndex() <= lastTrainIndex)
-                    .toList();
-
-            //2. Select ticket for labelling: We want realistic training set, select only ticket with fix in training set
-            List<Ticket> trainingTickets = fullTicketList.stream()
-                    .filter(t -> t.getFixedVersion() != null && t.getFixedVersion().getIndex() <= trainingSetLastIndex+1)
-                    .toList();
-
-            //3. Labelling for training set
-            buggyness.calculate(trainingReleases, trainingTickets);
-
-            //4. Write training set on csv file
-            csvGenerator.generateTrainingSet(trainingReleases, i);
-
-            int iteration = i;
-            try {
-                FileARFFGenerator arffGen = new FileARFFGenerator(projectName, i);
-                arffGen.csvToARFFTraining();
-            } catch (Exception e) {
-                Logger.getAnonymousLogger().log(Level.SEVERE,
-                        () -> "Errore conversione ARFF (training) iter " + iteration);
-                Logger.getAnonymousLogger().log(Level.SEVERE, "Stacktrace:", e);
-
-            }
-
-            //Testing:
-            //1. Select releases for training:
-            Release testingRelease = fullReleaseList.stream()
-                    .filter(r -> r.getIndex() == testingSetIndex)
-                    .findFirst().orElse(null);
-
-            if(testingRelease == null){
-                Logger.getAnonymousLogger().log(Level.WARNING, "No testing release found at index {0}. Ending walk-forward", testingSetIndex);
-                break;
-            }
+        // Feature di tutte le release di training scritte una sola volta: ogni iterazione aggiunge solo le label
+        TrainingSetStore trainingStore = new TrainingSetStore(projectName);
+        boolean exportTrainingFiles = ConfigManager.getBoolean("EXPORT_TRAINING_FILES", false);
+        try {
+            trainingStore.writeBase(fullReleaseList.stream().filter(r -> r.getIndex() < loopLimit).toList());
+        } catch (IOException e) {
+            Logger.getAnonymousLogger().log(Level.SEVERE, "Errore scrittura dataset base di training", e);
+            exportTrainingFiles = true;
+        }
 
-            //2. Labelling for testing: we use all tickets (we want most accurate test set)
-            List<Release> testingReleaseList = new ArrayList<>();
-            testingReleaseList.add(testingRelease);
-            buggyness.calculate(testingReleaseList, fullTicketList);
-
-            //3. Write testing set on csv file
-            csvGenerator.generateTestingSet(testingReleaseList, i);
-
-            // CONVERSIONE CSV -> ARFF (testing)
-            try {
-                FileARFFGenerator arffGen = new FileARFFGenerator(projectName, iteration);
-                arffGen.csvToARFFTesting();
-            } catch (Exception e) {
-                Logger.getAnonymousLogger().log(Level.SEVERE,
-                        () -> "Errore conversione ARFF (testing) iter " + iteration);
-                Logger.getAnonymousLogger().log(Level.SEVERE, "Stacktrace:", e);
+        for(int i = 1; i < loopLimit; i++){
+            try (var _ = RunMetrics.stage("walkForward.iteration", "iter " + i)) {
+                int trainingSetLastIndex = i;
+                int testingSetIndex = i + 1;
+                Logger.getAnonymousLogger().log(Level.INFO, "--- Iteration {0}: Training on releases 1-{1}, Testing on release {2} ---", new Object[]{i, trainingSetLastIndex, testingSetIndex});
+
+                //Training:
+                //1. Select releases for training:
+                final int lastTrainIndex = trainingSetLastIndex;
+                List<Release> trainingReleases = fullReleaseList.stream()
+                        .filter(r -> r.getIndex() <= lastTrainIndex)
+                        .toList();
+
+                //2. Select ticket for labelling: We want realistic training set, select only ticket with fix in training set
+                List<Ticket> trainingTickets = fullTicketList.stream()
+                        .filter(t -> t.getFixedVersion() != null && t.getFixedVersion().getIndex() <= trainingSetLastIndex+1)
+                        .toList();
+
+                //3. Labelling for training set
+                buggyness.calculate(trainingReleases, trainingTickets);
+
+                //4. Write training labels (the features are already in the base dataset)
+                int iteration = i;
+                try {
+                    trainingStore.writeLabels(trainingReleases, i);
+                } catch (Exception e) {
+                    Logger.getAnonymousLogger().log(Level.SEVERE,
+                            () -> "Errore scrittura label di training iter " + iteration);
+                    Logger.getAnonymousLogger().log(Level.SEVERE, "Stacktrace:", e);
+                    exportTrainingFiles = true;
+                }
+
+                //5. Full CSV/ARFF training files only on request (or if the store could not be written)
+                if (exportTrainingFiles) {
+                    csvGenerator.generateTrainingSet(trainingReleases, i);
+                    try {
+                        new FileARFFGenerator(projectName, i).generateTrainingArff(trainingReleases);
+                    } catch (Exception e) {
+                        Logger.getAnonymousLogger().log(Level.SEVERE,
+                                () -> "Errore conversione ARFF (training) iter " + iteration);
+                        Logger.getAnonymousLogger().log(Level.SEVERE, "Stacktrace:", e);
+                    }
+                }
+
+                //Testing:
+                //1. Select releases for training:
+                Release testingRelease = fullReleaseList.stream()
+                        .filter(r -> r.getIndex() == testingSetIndex)
+                        .findFirst().orElse(null);
+
+                if(testingRelease == null){
+                    Logger.getAnonymousLogger().log(Level.WARNING, "No testing release found at index {0}. Ending walk-forward", testingSetIndex);
+                    break;
+                }
+
+                //2. Labelling for testing: we use all tickets (we want most accurate test set)
+                List<Release> testingReleaseList = new ArrayList<>();
+                testingReleaseList.add(testingRelease);
+                buggyness.calculate(testingReleaseList, fullTicketList);
+
+                //3. Write testing set on csv file
+                csvGenerator.generateTestingSet(testingReleaseList, i);
+
+                //4. Write testing ARFF directly from the model
+                try {
+                    FileARFFGenerator arffGen = new FileARFFGenerator(projectName, iteration);
+                    arffGen.generateTestingArff(testingReleaseList);
+                    arffGen.generateTestingColumnar(testingReleaseList);
+                } catch (Exception e) {
+                    Logger.getAnonymousLogger().log(Level.SEVERE,
+                            () -> "Errore conversione ARFF (testing) iter " + iteration);
+                    Logger.getAnonymousLogger().log(Level.SEVERE, "Stacktrace:", e);
+                }
             }
         }
         Logger.getAnonymousLogger().log(Level.INFO, "Finished walk forward...");
@@ -2,31 +2,45 @@ package it.project.controllers;
 
 import it.project.entities.ClassifierResults;
 import it.project.entities.ClassifierSettings;
+import it.project.utils.ClassifierRegistry;
+import it.project.utils.ColumnarDataset;
+import it.project.utils.CompressedIO;
+import it.project.utils.ConfigManager;
+import it.project.utils.CvResultCache;
 import it.project.utils.DetectWalkPass;
+import it.project.utils.FeatureSelectionCache;
 import it.project.utils.FileCSVGenerator;
+import it.project.utils.PredictionSink;
+import it.project.utils.ProjectedInstances;
+import it.project.utils.RunMetrics;
+import it.project.utils.TrainingSetStore;
 
 import weka.attributeSelection.*;
 
 import weka.classifiers.AbstractClassifier;
 import weka.classifiers.Classifier;
 import weka.classifiers.Evaluation;
-import weka.classifiers.bayes.NaiveBayes;
-import weka.classifiers.lazy.IBk;
-import weka.classifiers.trees.RandomForest;
 
 import weka.core.Instances;
 import weka.core.converters.ArffLoader;
-import weka.core.converters.ConverterUtils;
+import weka.filters.unsupervised.attribute.Remove;
 
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.DoublePredicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -38,149 +52,340 @@ public class WekaClassifier {
     private final String projName;
     private final int walkPass;
     private final FileCSVGenerator csvGenerator;
-    /* Create List of classifiers to use */
-    private final List<Classifier> classifiers = new ArrayList<>(List.of(new NaiveBayes(), new RandomForest(), new IBk()));
+    private final TrainingSetStore trainingStore;
+    private final CvMode cvMode;
+    private CvResultCache cvCache; // solo durante fetchWekaAnalysis con WEKA_CROSS_VALIDATION = cache
+    private FeatureSelectionCache fsCache; // solo durante fetchWekaAnalysis con WEKA_FS_CACHE = true
+    private PredictionSink predictionSink; // solo durante fetchWekaAnalysis
+    /* Classificatori da valutare, da WEKA_CLASSIFIERS (vedi ClassifierRegistry) */
+    private final List<ClassifierRegistry.Entry> classifierEntries = ClassifierRegistry.configured();
+    private final List<Classifier> classifiers = classifierEntries.stream().map(ClassifierRegistry.Entry::newClassifier).toList();
 
     private static final String RESOURCES = "src/main/resources/";
-    private static final String NAIVE_BAYES = "naive bayes";
-    private static final String RANDOM_FOREST = "random forest";
-    private static final String IBK = "IBK";
+    private static final int CV_FOLDS = 10;
 
-    private static final String[] CLASSIFIER_NAME = {NAIVE_BAYES, RANDOM_FOREST, IBK};
+    /** WEKA_CROSS_VALIDATION: la CV serve solo ai log, quindi si può saltare o riusare dalla cache. */
+    private enum CvMode { OFF, ON, CACHE }
 
     public WekaClassifier(String projName, FileCSVGenerator csvGenerator) throws IOException {
         this.projName = projName;
         this.csvGenerator = csvGenerator;
+        this.trainingStore = new TrainingSetStore(projName);
         this.walkPass = new DetectWalkPass(projName).detectWalkPass();
+        this.cvMode = configuredCvMode();
     }
 
-    /** Piccolo contenitore per i dataset ridotti + selector (se vuoi ispezionarlo) */
-    private static final class FSResult {
+    private static CvMode configuredCvMode() {
+        String value = ConfigManager.getString("WEKA_CROSS_VALIDATION", "cache").trim();
+        try {
+            return CvMode.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("WEKA_CROSS_VALIDATION = \"" + value
+                    + "\" non valido in configuration.properties: valori ammessi off, on, cache", e);
+        }
+    }
+
+    /** Piccolo contenitore per i dataset ridotti + indici selezionati (classe inclusa, come selectedAttributes) */
+    static final class FSResult {
         final Instances train;
         final Instances test;
-        final AttributeSelection selector;
-        FSResult(Instances train, Instances test, AttributeSelection selector) {
+        final int[] selected;
+        FSResult(Instances train, Instances test, int[] selected) {
             this.train = train;
             this.test = test;
-            this.selector = selector;
+            this.selected = selected;
         }
     }
 
-    public void fetchWekaAnalysis() throws Exception {
-        List<ClassifierResults> classifierResults = new ArrayList<>();
+    /** Le tre feature selection valutate ad ogni iterazione, oltre al caso base senza selezione (evaluator CFS). */
+    private enum FeatureSelection {
+        FORWARD("GreedyStepwise Forward + CFS"),
+        BACKWARD("GreedyStepwise Backward + CFS"),
+        BEST_FIRST("BestFirst + CFS");
 
-        for (int i = 1; i <= walkPass; i++) {
-            String arffTrainingPath = Paths.get(RESOURCES, projName.toLowerCase(),
-                    "training", "ARFF", this.projName + "_training_iter_" + i + ".arff").toString();
-            ConverterUtils.DataSource trainingSource = new ConverterUtils.DataSource(arffTrainingPath);
-            Instances trainDataset = trainingSource.getDataSet();
+        final String label;
 
-            String arffTestingPath = Paths.get(RESOURCES, projName.toLowerCase(),
-                    "testing", "ARFF", this.projName + "_testing_iter_" + i + ".arff").toString();
-            ConverterUtils.DataSource testingSource = new ConverterUtils.DataSource(arffTestingPath);
-            Instances testDataset = testingSource.getDataSet();
+        FeatureSelection(String label) {
+            this.label = label;
+        }
 
-            trainDataset.setClassIndex(trainDataset.numAttributes() - 1);
-            testDataset.setClassIndex(testDataset.numAttributes() - 1);
+        /* ricerca nuova per ogni task: gli oggetti ASSearch hanno stato */
+        ASSearch search() {
+            if (this == BEST_FIRST) return new BestFirst();
+            GreedyStepwise gs = new GreedyStepwise();
+            gs.setSearchBackwards(this == BACKWARD);
+            return gs;
+        }
+    }
 
-            // ===== 0) Base: nessuna selezione =====
-            Logger.getAnonymousLogger().log(Level.INFO, "Default Classifier");
-            ClassifierSettings defaultSettings = new ClassifierSettings();
-            evaluateClassifier(classifierResults, i, trainDataset, testDataset, defaultSettings);
-
-            // Preparazione evaluator comune (CFS)
-            CfsSubsetEval cfs = new CfsSubsetEval();
-
-            // ===== 1) Forward =====
-            GreedyStepwise gsForward = new GreedyStepwise();
-            gsForward.setSearchBackwards(false);
-            runAndEvaluateFeatureSelection(
-                    classifierResults, i, trainDataset, testDataset,
-                    "GreedyStepwise Forward + CFS",
-                    cfs, gsForward
-            );
-
-            // ===== 2) Backward =====
-            GreedyStepwise gsBackward = new GreedyStepwise();
-            gsBackward.setSearchBackwards(true);
-            runAndEvaluateFeatureSelection(
-                    classifierResults, i, trainDataset, testDataset,
-                    "GreedyStepwise Backward + CFS",
-                    cfs, gsBackward
-            );
-
-            // ===== 3) BestFirst =====
-            BestFirst bestFirst = new BestFirst();
-            runAndEvaluateFeatureSelection(
-                    classifierResults, i, trainDataset, testDataset,
-                    "BestFirst + CFS",
-                    cfs, bestFirst
-            );
-        }
-
-        csvGenerator.generateWekaResultFile(classifierResults, 0);
-    }
-
-    private void runAndEvaluateFeatureSelection(
-            List<ClassifierResults> classifierResults,
-            int iteration,
-            Instances trainDataset,
-            Instances testDataset,
-            String fsLabel,       // es. "GreedyStepwise Forward + CFS"
-            ASEvaluation evaluator,
-            ASSearch search
-    ) throws Exception {
-        String logLabel = fsLabel + " at iteration" + iteration;
-        FSResult fs = runFeatureSelection(
-                new Instances(trainDataset),
-                new Instances(testDataset),
-                iteration,
-                logLabel,
-                evaluator,
-                search
-        );
+    /** Train e test di un'iterazione. */
+    private static final class Datasets {
+        final Instances train;
+        final Instances test;
+        Datasets(Instances train, Instances test) {
+            this.train = train;
+            this.test = test;
+        }
+    }
 
-        ClassifierSettings settings = new ClassifierSettings();
-        settings.setFeatureSelection(fsLabel);
-        evaluateClassifier(classifierResults, iteration, fs.train, fs.test, settings);
+    /** Celle di un'impostazione (base o una feature selection) di un'iterazione, una per classificatore. */
+    private static final class SettingTasks {
+        final FeatureSelection selection;          // null = base
+        final CompletableFuture<FSResult> fs;      // null = base
+        final List<CompletableFuture<CellResult>> cells = new ArrayList<>();
+        SettingTasks(FeatureSelection selection, CompletableFuture<FSResult> fs) {
+            this.selection = selection;
+            this.fs = fs;
+        }
     }
 
-    // Piccolo holder per restituire sia il modello sia i risultati
-    private static final class EvalOutcome {
-        final Classifier model;
+    /** Metriche di una cella e le sue predizioni, da pubblicare nei file consolidati alla raccolta. */
+    private static final class CellResult {
         final ClassifierResults results;
-        EvalOutcome(Classifier model, ClassifierResults results) {
-            this.model = model;
+        final PredictionSink.Cell predictions;     // null se la scrittura delle predizioni è fallita
+        CellResult(ClassifierResults results, PredictionSink.Cell predictions) {
             this.results = results;
+            this.predictions = predictions;
         }
     }
 
-    private void evaluateClassifier(
-            List<ClassifierResults> classifierResults,
-            int iteration,
-            Instances trainDataset,
-            Instances testDataset,
-            ClassifierSettings settings
-    ) throws Exception {
+    /**
+     * Griglia iterazioni × {base, forward, backward, best-first} × classificatori come grafo di task su un
+     * pool work-stealing (WEKA_PARALLELISM thread, 0 = tutti i core): caricamento → feature selection → celle.
+     * Ogni cella ha il suo seed, la sua copia del classificatore e delle Instances, quindi i risultati non
+     * dipendono dall'ordine di esecuzione; vengono raccolti e scritti nell'ordine della versione sequenziale.
+     * Le iterazioni in volo sono al più WEKA_ITERATIONS_IN_FLIGHT (default 2), così in memoria restano i dataset
+     * di poche iterazioni e non di tutte: i training set crescono a ogni release.
+     */
+    public void fetchWekaAnalysis() throws Exception {
+        int parallelism = ConfigManager.getInt("WEKA_PARALLELISM", 0);
+        if (parallelism <= 0) parallelism = Runtime.getRuntime().availableProcessors();
+        RunMetrics.count("weka.parallelism", parallelism);
 
-        String combinationClassifier = settings.getFeatureSelection();
+        if (cvMode == CvMode.CACHE) {
+            cvCache = CvResultCache.forProject(projName);
+            LOG.log(Level.INFO, "Cache CV: {0} voci", cvCache.size());
+        }
+        if (ConfigManager.getBoolean("WEKA_FS_CACHE", true)) {
+            fsCache = FeatureSelectionCache.forProject(projName);
+            LOG.log(Level.INFO, "Cache feature selection: {0} voci", fsCache.size());
+        }
 
-        for (int index = 0; index < classifiers.size(); index++) {
-            Classifier prototype = classifiers.get(index);
+        predictionSink = csvGenerator.openPredictionSink();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        // chiusura in ordine inverso anche dopo un errore: pool, predizioni consolidate, cache FS, cache CV.
+        // Ognuna indipendente dalle altre; i loro errori restano soppressi sotto quello originale.
+        try (Closeable _ = this::saveCvCache;
+             Closeable _ = this::saveFsCache;
+             Closeable _ = this::closePredictionSink;
+             Closeable _ = pool::shutdownNow) {
+            // al più inFlight iterazioni in memoria (dataset + proiezioni): la i+inFlight parte quando la i è raccolta
+            int inFlight = Math.max(1, ConfigManager.getInt("WEKA_ITERATIONS_IN_FLIGHT", 2));
+            List<List<SettingTasks>> grid = new ArrayList<>(Collections.nCopies(walkPass, null));
+            List<CompletableFuture<Datasets>> loads = new ArrayList<>(Collections.nCopies(walkPass, null));
+            int scheduled = 0;
+            while (scheduled < Math.min(inFlight, walkPass)) {
+                scheduled++;
+                schedule(pool, scheduled, loads, grid);
+            }
+
+            List<ClassifierResults> classifierResults = new ArrayList<>();
+            for (int i = 1; i <= walkPass; i++) {
+                try (var _ = RunMetrics.stage("weka.collect", "iter " + i)) {
+                    collectIteration(classifierResults, i, join(loads.get(i - 1)), grid.get(i - 1));
+                }
+                // rilascia i dataset dell'iterazione già raccolta
+                loads.set(i - 1, null);
+                grid.set(i - 1, null);
+                if (scheduled < walkPass) {
+                    scheduled++;
+                    schedule(pool, scheduled, loads, grid);
+                }
+            }
+
+            csvGenerator.generateWekaResultFile(classifierResults, 0);
+        }
+    }
 
-            EvalOutcome outcome = evaluateSingleClassifier(
-                    prototype, index, iteration,
-                    trainDataset, testDataset,
-                    settings, combinationClassifier
-            );
+    /* anche dopo un errore: le celle già valutate non vanno ricalcolate */
+    private void saveCvCache() throws IOException {
+        if (cvCache == null) return;
+        try {
+            cvCache.save();
+        } finally {
+            cvCache = null;
+        }
+    }
 
-            classifierResults.add(outcome.results);
-            // Salvataggio predizioni per-istanza sul TEST (come prima)
-            makePrediction(outcome.model, testDataset, iteration, index, combinationClassifier);
+    private void saveFsCache() throws IOException {
+        if (fsCache == null) return;
+        try {
+            fsCache.save();
+        } finally {
+            fsCache = null;
         }
+    }
 
+    private void closePredictionSink() throws IOException {
+        try {
+            predictionSink.close();
+        } finally {
+            predictionSink = null;
+        }
+    }
+
+    private void schedule(ForkJoinPool pool, int i, List<CompletableFuture<Datasets>> loads,
+                          List<List<SettingTasks>> grid) {
+        CompletableFuture<Datasets> data = async(pool, loadIteration(i));
+        loads.set(i - 1, data);
+        grid.set(i - 1, scheduleIteration(pool, i, data));
+    }
+
+    private Callable<Datasets> loadIteration(int i) {
+        return () -> {
+            Instances trainDataset;
+            Instances testDataset;
+            try (var _ = RunMetrics.stage("weka.loadDatasets", "iter " + i)) {
+                trainDataset = loadIterationDataset("training", i);
+                testDataset = loadIterationDataset("testing", i);
+            }
+            trainDataset.setClassIndex(trainDataset.numAttributes() - 1);
+            testDataset.setClassIndex(testDataset.numAttributes() - 1);
+            return new Datasets(trainDataset, testDataset);
+        };
+    }
+
+    private List<SettingTasks> scheduleIteration(ForkJoinPool pool, int i, CompletableFuture<Datasets> data) {
+        List<SettingTasks> settings = new ArrayList<>();
+
+        // ===== 0) Base: nessuna selezione =====
+        SettingTasks base = new SettingTasks(null, null);
+        for (int index = 0; index < classifiers.size(); index++) {
+            int c = index;
+            base.cells.add(data.thenApplyAsync(d -> call(() ->
+                    evaluateCell(c, i, d.train, d.test, new ClassifierSettings())), pool));
+        }
+        settings.add(base);
+
+        // ===== 1-3) Forward, Backward, BestFirst (CFS) =====
+        // un solo CFS (discretizzazione + correlazioni) per le tre ricerche dell'iterazione
+        SharedCfsEvaluator cfs = new SharedCfsEvaluator(new CfsSubsetEval());
+        for (FeatureSelection selection : FeatureSelection.values()) {
+            CompletableFuture<FSResult> fs = data.thenApplyAsync(d -> call(() -> {
+                try (var _ = RunMetrics.stage("weka.featureSelection", selection.label)) {
+                    return selectFeatures(d.train, d.test, cfs, selection.search());
+                }
+            }), pool);
+            SettingTasks tasks = new SettingTasks(selection, fs);
+            ClassifierSettings fsSettings = new ClassifierSettings();
+            fsSettings.setFeatureSelection(selection.label);
+            for (int index = 0; index < classifiers.size(); index++) {
+                int c = index;
+                tasks.cells.add(fs.thenApplyAsync(r -> call(() ->
+                        evaluateCell(c, i, r.train, r.test, fsSettings)), pool));
+            }
+            settings.add(tasks);
+        }
+        return settings;
+    }
+
+    /** Raccolta in ordine deterministico, con i log e i file cumulativi scritti da un solo thread. */
+    private void collectIteration(List<ClassifierResults> classifierResults, int i, Datasets data,
+                                  List<SettingTasks> settings) throws Exception {
+        for (SettingTasks tasks : settings) {
+            if (tasks.selection == null) {
+                Logger.getAnonymousLogger().log(Level.INFO, "Default Classifier");
+            } else {
+                String logLabel = tasks.selection.label + " at iteration" + i;
+                int[] selected = join(tasks.fs).selected;
+                logSelectedFeatures(selected, data.train, logLabel + " (iter " + i + ")");
+                csvGenerator.saveSelectedFeatures(i, logLabel, data.train, selected);
+            }
+            for (CompletableFuture<CellResult> cell : tasks.cells) {
+                CellResult result = join(cell);
+                classifierResults.add(result.results);
+                if (result.predictions != null) predictionSink.publish(result.predictions);
+            }
+        }
         // CSV cumulativo per l'iterazione
-        csvGenerator.generateWekaResultFile(classifierResults, iteration);
+        csvGenerator.generateWekaResultFile(classifierResults, i);
+    }
+
+    /**
+     * Una cella della griglia. Classificatore e Instances sono copie locali al task: il prototipo
+     * condiviso viene solo serializzato da makeCopy, le Instances condividono i valori ma non lo stato.
+     */
+    private CellResult evaluateCell(int index, int iteration, Instances train, Instances test,
+                                           ClassifierSettings settings) throws Exception {
+        Classifier prototype = AbstractClassifier.makeCopy(classifiers.get(index));
+        Instances trainDataset = new Instances(train);
+        Instances testDataset = new Instances(test);
+        String combinationClassifier = settings.getFeatureSelection();
+
+        EvalOutcome outcome = evaluateSingleClassifier(
+                prototype, index, iteration,
+                trainDataset, testDataset,
+                settings, combinationClassifier
+        );
+        // Predizioni per-istanza sul TEST dalla stessa matrice delle metriche; i consolidati in collectIteration
+        PredictionSink.Cell predictions =
+                makePrediction(outcome.predictions, testDataset, iteration, index, combinationClassifier);
+        return new CellResult(outcome.results, predictions);
+    }
+
+    private String classifierName(int index) {
+        return classifierEntries.get(index).name();
+    }
+
+    private static <T> CompletableFuture<T> async(ForkJoinPool pool, Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> call(task), pool);
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /** Attende il task e rilancia l'eccezione originale (non il wrapper di CompletableFuture). */
+    private static <T> T join(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    /** Carica il dataset dell'iterazione dal formato colonnare se presente, altrimenti dall'ARFF. */
+    private Instances loadIterationDataset(String kind, int iteration) throws Exception {
+        if ("training".equals(kind)) {
+            if (trainingStore.hasIteration(iteration)) {
+                RunMetrics.hit("weka.trainingStore");
+                return trainingStore.load(iteration);
+            }
+            RunMetrics.miss("weka.trainingStore");
+        }
+        String baseName = this.projName + "_" + kind + "_iter_" + iteration;
+        File bin = Paths.get(RESOURCES, projName.toLowerCase(), kind, "BIN", baseName + ColumnarDataset.EXTENSION).toFile();
+        if (bin.isFile()) {
+            return ColumnarDataset.load(bin);
+        }
+        return CompressedIO.loadInstances(Paths.get(RESOURCES, projName.toLowerCase(), kind, "ARFF", baseName + ".arff").toFile());
+    }
+
+    // Piccolo holder per restituire sia il modello sia i risultati
+    static final class EvalOutcome {
+        final Classifier model;
+        final PredictionMatrix predictions;
+        final ClassifierResults results;
+        EvalOutcome(Classifier model, PredictionMatrix predictions, ClassifierResults results) {
+            this.model = model;
+            this.predictions = predictions;
+            this.results = results;
+        }
     }
 
 // ========================= Helpers =========================
@@ -190,7 +395,7 @@ public class WekaClassifier {
         return Math.max(idx, 0);
     }
 
-    private EvalOutcome evaluateSingleClassifier(
+    EvalOutcome evaluateSingleClassifier(
             Classifier prototype,
             int index,
             int iteration,
@@ -203,48 +408,85 @@ public class WekaClassifier {
         int pos = positiveClassIndex(testDataset); // <--- calcolato qui
 
         long seed = 12345L + iteration * 100L + index;
-        Evaluation cvEval = crossValidate(prototype, trainDataset, seed);
-        logCvMetrics(iteration, index, combinationClassifier, cvEval, pos);
+        String scope = prototype.getClass().getSimpleName();
+        CvResultCache.Metrics cv = crossValidationMetrics(prototype, trainDataset, combinationClassifier, seed, pos, scope);
+        if (cv != null) logCvMetrics(iteration, index, combinationClassifier, cv);
 
         Classifier model = AbstractClassifier.makeCopy(prototype);
-        model.buildClassifier(trainDataset);
-
         Evaluation testEval = new Evaluation(trainDataset);
-        testEval.evaluateModel(model, testDataset);
+        PredictionMatrix predictions;
+        try (var _ = RunMetrics.stage("weka.trainTest", scope)) {
+            model.buildClassifier(trainDataset);
+            // un solo passaggio di predizione sul test: Evaluation, PofB20 e CSV leggono la matrice
+            predictions = PredictionMatrix.score(model, testDataset);
+            predictions.recordInto(testEval);
+        }
 
         ClassifierResults res = baseResults(settings, trainDataset, testDataset, iteration, index);
         fillStandardMetrics(res, testEval, pos);
         fillConfusionMatrix(res, testEval.confusionMatrix(), testDataset, pos);
-        fillEffortAwareMetricsIfPossible(res, model, testDataset, pos);
+        fillEffortAwareMetricsIfPossible(res, predictions, testDataset, pos);
         res.setAccuracy(testEval.pctCorrect() / 100.0);
 
-        return new EvalOutcome(model, res);
+        return new EvalOutcome(model, predictions, res);
     }
 
 
+    /** Metriche CV della cella: null con WEKA_CROSS_VALIDATION = off, dalla cache se la chiave è già nota. */
+    private CvResultCache.Metrics crossValidationMetrics(Classifier prototype, Instances trainDataset,
+                                                         String combinationClassifier, long seed, int pos,
+                                                         String scope) throws Exception {
+        if (cvMode == CvMode.OFF) return null;
+        CvResultCache cache = this.cvCache;
+        String key = null;
+        if (cache != null) {
+            key = CvResultCache.key(trainDataset, prototype, combinationClassifier, seed, CV_FOLDS, pos);
+            CvResultCache.Metrics cached = cache.get(key);
+            if (cached != null) {
+                RunMetrics.hit("weka.cvCache");
+                return cached;
+            }
+            RunMetrics.miss("weka.cvCache");
+        }
+
+        Evaluation cvEval;
+        try (var _ = RunMetrics.stage("weka.crossValidate", scope)) {
+            cvEval = crossValidate(prototype, trainDataset, seed);
+        }
+        CvResultCache.Metrics metrics = new CvResultCache.Metrics(
+                cvEval.precision(pos), cvEval.recall(pos), cvEval.fMeasure(pos),
+                cvEval.areaUnderROC(pos), cvEval.kappa());
+        if (key != null) cache.put(key, metrics);
+        return metrics;
+    }
+
     private Evaluation crossValidate(Classifier prototype, Instances trainDataset, long seed) throws Exception {
         Evaluation cvEval = new Evaluation(trainDataset);
-        java.security.SecureRandom rnd = new java.security.SecureRandom();
-        rnd.setSeed(seed); // garantisce risultati replicabili
-        cvEval.crossValidateModel(prototype, trainDataset, 10, rnd);
+        // Random e non SecureRandom: su Linux setSeed di NativePRNG aggiunge entropia invece di fissare il seed
+        Random rnd = new Random(seed);
+        if (ConfigManager.getBoolean("WEKA_CV_PARALLEL", true)) {
+            ParallelCrossValidation.crossValidateModel(cvEval, prototype, trainDataset, CV_FOLDS, rnd);
+        } else {
+            cvEval.crossValidateModel(prototype, trainDataset, CV_FOLDS, rnd);
+        }
         return cvEval;
     }
 
 
 
-    private void logCvMetrics(int iteration, int index, String combinationClassifier, Evaluation cvEval, int pos) {
+    private void logCvMetrics(int iteration, int index, String combinationClassifier, CvResultCache.Metrics cv) {
         if (!LOG.isLoggable(Level.INFO)) return;
         String combo = (combinationClassifier == null || combinationClassifier.isBlank()) ? "base" : combinationClassifier;
         LOG.info(String.format(
                 "[Iter %d | %s | %s] 10-fold CV -> Prec=%.4f Rec=%.4f F1=%.4f AUC=%.4f Kappa=%.4f",
                 iteration,
-                CLASSIFIER_NAME[index],
+                classifierName(index),
                 combo,
-                cvEval.precision(pos),
-                cvEval.recall(pos),
-                cvEval.fMeasure(pos),
-                cvEval.areaUnderROC(pos),
-                cvEval.kappa()
+                cv.precision(),
+                cv.recall(),
+                cv.fMeasure(),
+                cv.auc(),
+                cv.kappa()
         ));
     }
 
@@ -256,7 +498,7 @@ public class WekaClassifier {
             int index
     ) {
         return new ClassifierResults(
-                this.projName, iteration, CLASSIFIER_NAME[index], settings,
+                this.projName, iteration, classifierName(index), settings,
                 trainDataset.numInstances(), testDataset.numInstances()
         );
     }
@@ -291,13 +533,16 @@ public class WekaClassifier {
     }
 
 
-    private void fillEffortAwareMetricsIfPossible(ClassifierResults res, Classifier model, Instances testDataset, int pos) throws Exception {
+    private void fillEffortAwareMetricsIfPossible(ClassifierResults res, PredictionMatrix predictions, Instances testDataset, int pos) {
         int locIdx = findLocIndex(testDataset);
         if (locIdx < 0) {
             res.setPofB20(Double.NaN);
             res.setNpofB20(Double.NaN);
+            res.setPopt(Double.NaN);
+            res.setAcc20(Double.NaN);
+            res.setIfa(Double.NaN);
             if (LOG.isLoggable(Level.WARNING)) {
-                LOG.warning("Attributo LOC non trovato nel TEST: PofB20/NPofB20 non calcolabili.");
+                LOG.warning("Attributo LOC non trovato nel TEST: metriche effort-aware non calcolabili.");
             }
             return;
         }
@@ -315,27 +560,30 @@ public class WekaClassifier {
             locArr[i] = (int) Math.max(0, Math.round(v));
 
             // probabilità "yes"
-            double[] dist = model.distributionForInstance(inst);
-            probYes[i] = (pos < dist.length && !Double.isNaN(dist[pos])) ? dist[pos] : 0.0;
+            double p = predictions.probability(i, pos);
+            probYes[i] = Double.isNaN(p) ? 0.0 : p;
 
             // label reale
             int y = (int) inst.classValue();
             buggy[i] = (y == pos);
         }
 
-        double pofB20 = computePofB20(locArr, probYes, buggy);
-        res.setPofB20(pofB20);
-        res.setNpofB20(computeNPofB20(pofB20));
+        // un solo ordinamento per (modello, test set): tutte le metriche leggono le stesse curve
+        EffortAwareMetrics effort = EffortAwareMetrics.of(locArr, probYes, buggy);
+        res.setPofB20(effort.pofB(EffortAwareMetrics.DEFAULT_EFFORT));
+        res.setNpofB20(effort.normalizedPofB(EffortAwareMetrics.DEFAULT_EFFORT));
+        res.setPopt(effort.popt());
+        res.setAcc20(effort.acc(EffortAwareMetrics.DEFAULT_EFFORT));
+        res.setIfa(effort.ifa());
     }
 
 
 
-    public static void logSelectedFeatures(AttributeSelection selector, Instances dataset, String context) throws Exception {
+    public static void logSelectedFeatures(int[] indices, Instances dataset, String context) {
         if (!LOG.isLoggable(Level.INFO)) {
             return; // evita costruzione stringa se non serve
         }
 
-        int[] indices = selector.selectedAttributes();
         StringBuilder sb = new StringBuilder();
         sb.append("=== Features selezionate [").append(context).append("] ===\n");
 
@@ -348,17 +596,11 @@ public class WekaClassifier {
     }
 
 
-    private void makePrediction(Classifier classifier,
-                                Instances testDataset,
-                                int iteration,
-                                int indexClassifier,
-                                String combination) throws Exception {
-
-        List<String[]> rows = new ArrayList<>();
-        rows.add(new String[] {
-                "iteration","classifier","feature_selection",
-                "instance_id","actual","predicted","p_yes","p_no"
-        });
+    private PredictionSink.Cell makePrediction(PredictionMatrix predictions,
+                                               Instances testDataset,
+                                               int iteration,
+                                               int indexClassifier,
+                                               String combination) {
 
         int pos = testDataset.classAttribute().indexOfValue("yes");
         if (pos < 0) pos = 0;
@@ -372,30 +614,20 @@ public class WekaClassifier {
             neg = 0;
         }
 
-        for (int i = 0; i < testDataset.numInstances(); i++) {
-            var inst = testDataset.instance(i);
-            double[] dist = classifier.distributionForInstance(inst);
-            int predicted = (int) classifier.classifyInstance(inst);
-            int actual = (int) inst.classValue();
-            String instanceId = extractInstanceId(testDataset, i);
-
-            String fsLabel = (combination == null || combination.isBlank()) ? "base" : combination;
-            String pYes = (pos < dist.length) ? String.valueOf(dist[pos]) : "NaN";
-            String pNo  = (neg < dist.length) ? String.valueOf(dist[neg]) : "NaN";
-
-            rows.add(new String[] {
-                    String.valueOf(iteration),
-                    CLASSIFIER_NAME[indexClassifier],
-                    fsLabel,
-                    instanceId,
-                    String.valueOf(actual),
-                    String.valueOf(predicted),
-                    pYes,
-                    pNo
-            });
+        String fsLabel = (combination == null || combination.isBlank()) ? "base" : combination;
+        try (PredictionSink.Cell cell = predictionSink.open(iteration, classifierName(indexClassifier), fsLabel)) {
+            for (int i = 0; i < predictions.size(); i++) {
+                cell.row(extractInstanceId(testDataset, i),
+                        (int) testDataset.instance(i).classValue(),
+                        (int) predictions.classification(i),
+                        predictions.probability(i, pos),
+                        predictions.probability(i, neg));
+            }
+            return cell;
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Errore scrittura predizioni: ", e);
+            return null;
         }
-
-        csvGenerator.generatePredictionsFile(rows, CLASSIFIER_NAME[indexClassifier], combination, iteration);
     }
 
 
@@ -419,45 +651,66 @@ public class WekaClassifier {
     }
 
     /**
-     * Esegue la feature selection SOLO sul train, salva/logga le feature scelte e
-     * applica lo stesso subset a train e test. Ritorna le due Instances ridotte.
+     * Esegue la feature selection SOLO sul train e applica lo stesso subset a train e test.
+     * Ritorna le due Instances ridotte; log e salvataggio delle feature scelte li fa il chiamante
+     * (in ordine deterministico, vedi collectIteration). Train e test in input non vengono modificati.
      */
-    private FSResult runFeatureSelection(
+    FSResult runFeatureSelection(
             Instances trainDataset,
             Instances testDataset,
-            int iteration,
-            String fsLabel,                 // es. "GreedyStepwise Forward + CFS"
             ASEvaluation evaluator,
             ASSearch search
     ) throws Exception {
 
-        // garantisci class index
-        trainDataset.setClassIndex(trainDataset.numAttributes() - 1);
-        testDataset.setClassIndex(testDataset.numAttributes() - 1);
-
         AttributeSelection selector = new AttributeSelection();
         selector.setEvaluator(evaluator);
         selector.setSearch(search);
 
         // Selezione SOLO sul train
-        selector.SelectAttributes(trainDataset);
-
-        // Indici selezionati
-        int[] indices = selector.selectedAttributes();
-
-        // Log & salvataggio
-        logSelectedFeatures(selector, trainDataset, fsLabel + " (iter " + iteration + ")");
-        csvGenerator.saveSelectedFeatures(iteration, fsLabel, trainDataset, indices);
+        selector.SelectAttributes(new Instances(trainDataset));
+
+        return reduce(trainDataset, testDataset, selector.selectedAttributes());
+    }
+
+    /** Feature selection con cache: gli indici dipendono solo da training set, evaluator e ricerca. */
+    private FSResult selectFeatures(Instances trainDataset, Instances testDataset,
+                                    SharedCfsEvaluator cfs, ASSearch search) throws Exception {
+        FeatureSelectionCache cache = this.fsCache;
+        String key = null;
+        if (cache != null) {
+            key = FeatureSelectionCache.key("selected", trainDataset, cfs.template(), search);
+            int[] cached = cache.get(key);
+            if (cached != null) {
+                RunMetrics.hit("weka.featureSelection");
+                return reduce(trainDataset, testDataset, cached);
+            }
+            RunMetrics.miss("weka.featureSelection");
+        }
+        FSResult result = runFeatureSelection(trainDataset, testDataset, cfs.newAdapter(), search);
+        if (key != null) cache.put(key, result.selected);
+        return result;
+    }
 
-        // Riduci entrambi usando LO STESSO subset
-        Instances newTrain = selector.reduceDimensionality(new Instances(trainDataset));
-        Instances newTest  = selector.reduceDimensionality(new Instances(testDataset));
+    /**
+     * Riduce train e test allo STESSO subset. L'header è quello di AttributeSelection.reduceDimensionality
+     * (Remove con selezione invertita, formato preso dal train); le righe sono viste sulle colonne
+     * selezionate delle istanze originali, senza copiarne i valori.
+     */
+    private static FSResult reduce(Instances trainDataset, Instances testDataset, int[] selected) throws Exception {
+        Remove remove = new Remove();
+        remove.setAttributeIndicesArray(selected);
+        remove.setInvertSelection(true);
+        remove.setInputFormat(trainDataset);
+        Instances header = remove.getOutputFormat();
+        int[] columns = Arrays.stream(selected).distinct().sorted().toArray(); // stesso ordine di Remove
+        Instances newTrain = ProjectedInstances.project(trainDataset, header, columns);
+        Instances newTest  = ProjectedInstances.project(testDataset, header, columns);
 
         // Reimposta class index dopo la riduzione
         newTrain.setClassIndex(newTrain.numAttributes() - 1);
         newTest.setClassIndex(newTest.numAttributes() - 1);
 
-        return new FSResult(newTrain, newTest, selector);
+        return new FSResult(newTrain, newTest, selected);
     }
 
 
@@ -501,11 +754,11 @@ public class WekaClassifier {
         if (arffPath == null || arffPath.isBlank())
             throw new IllegalArgumentException("ARFF path nullo o vuoto.");
 
-        File f = new File(arffPath);
+        File f = CompressedIO.existing(new File(arffPath));
         if (!f.exists() || !f.isFile() || !f.canRead())
             throw new IOException("ARFF non trovato/illeggibile: " + f.getAbsolutePath());
 
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
+        try (Reader br = CompressedIO.openReader(f)) {
             ArffLoader.ArffReader reader = new ArffLoader.ArffReader(br);
             Instances data = reader.getData();
             if (data == null) throw new IOException("Caricamento ARFF fallito: " + f.getAbsolutePath());
@@ -655,48 +908,6 @@ public class WekaClassifier {
         return -1;
     }
 
-    /** PofB20: % di bug trovati ispezionando il 20% del LOC totale, ordinando per score desc. */
-    private static double computePofB20(int[] loc, double[] probYes, boolean[] isBuggy) {
-        final int n = loc.length;
-
-        long totalLOC = 0;
-        int totalBugs = 0;
-        for (int i = 0; i < n; i++) {
-            totalLOC += Math.max(0, loc[i]);
-            if (isBuggy[i]) totalBugs++;
-        }
-        if (totalBugs == 0 || totalLOC == 0) return Double.NaN;
-
-        // ordina per score (probabilità di "yes") decrescente
-        Integer[] idx = java.util.stream.IntStream.range(0, n).boxed().toArray(Integer[]::new);
-        java.util.Arrays.sort(idx, (a, b) -> Double.compare(probYes[b], probYes[a]));
-
-        long limitLOC = Math.round(0.2 * totalLOC);
-        long accLOC = 0;
-        int bugsFound = 0;
-
-        for (int id : idx) {
-            if (accLOC >= limitLOC) break;
-            accLOC += Math.max(0, loc[id]);
-            if (isBuggy[id]) bugsFound++;
-        }
-        return bugsFound / (double) totalBugs;
-    }
-
-    /**
-     * NPofB20 (random-normalized): normalizza PofB20 contro random (=0.2) e best (=1.0).
-     * Formula: (PofB20 - 0.2) / (1 - 0.2) con clamp [0,1].
-     * Nota: è una normalizzazione pratica e molto usata; se vuoi la versione "best/worst"
-     * esatta basata sul profilo LOC dei bug, la scriviamo in un secondo momento.
-     */
-    private static double computeNPofB20(double pofB20) {
-        if (Double.isNaN(pofB20)) return Double.NaN;
-        double np = (pofB20 - 0.2) / 0.8;
-        if (np < 0) np = 0;
-        if (np > 1) np = 1;
-        return np;
-    }
-
 
 
 }
@@ -18,6 +18,9 @@ public class ClassifierResults {
 
     private Double pofB20;   // può essere null/NaN se non calcolabile
     private Double npofB20;  // idem
+    private Double popt;     // idem
+    private Double acc20;    // idem
+    private Double ifa;      // idem
     private Double accuracy;
 
     private final String selection;
@@ -130,6 +133,15 @@ public class ClassifierResults {
     public Double getNpofB20() { return npofB20; }
     public void setNpofB20(Double npofB20) { this.npofB20 = npofB20; }
 
+    public Double getPopt() { return popt; }
+    public void setPopt(Double popt) { this.popt = popt; }
+
+    public Double getAcc20() { return acc20; }
+    public void setAcc20(Double acc20) { this.acc20 = acc20; }
+
+    public Double getIfa() { return ifa; }
+    public void setIfa(Double ifa) { this.ifa = ifa; }
+
     public Double getAccuracy() { return accuracy; }
     public void setAccuracy(Double accuracy) { this.accuracy = accuracy; }
 
@@ -0,0 +1,43 @@
+package it.project.entities;
+
+import java.util.List;
+
+/**
+ * Issue Jira ridotta ai campi usati dall'estrazione. Le date restano nel formato testuale di
+ * Jira, così la snapshot locale riproduce esattamente la risposta del server.
+ */
+public class JiraIssue {
+    private final String key;
+    private final String created;
+    private final String resolutionDate;
+    private final String updated;
+    private final List<String> versionNames;
+
+    public JiraIssue(String key, String created, String resolutionDate, String updated, List<String> versionNames) {
+        this.key = key;
+        this.created = created;
+        this.resolutionDate = resolutionDate;
+        this.updated = updated;
+        this.versionNames = (versionNames == null) ? List.of() : versionNames;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getCreated() {
+        return created;
+    }
+
+    public String getResolutionDate() {
+        return resolutionDate;
+    }
+
+    public String getUpdated() {
+        return updated;
+    }
+
+    public List<String> getVersionNames() {
+        return versionNames;
+    }
+}
@@ -0,0 +1,117 @@
+package it.project.utils;
+
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.classifiers.ParallelIteratedSingleClassifierEnhancer;
+import weka.classifiers.ParallelMultipleClassifiersCombiner;
+import weka.classifiers.lazy.IBk;
+import weka.core.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Classificatori della valutazione Weka, letti da configuration.properties.
+ *
+ * WEKA_CLASSIFIERS elenca gli id (separati da virgole, nell'ordine delle celle); per ogni id:
+ * <pre>
+ *   WEKA_CLASSIFIER_&lt;ID&gt;_CLASS      classe Weka (obbligatoria), es. weka.classifiers.trees.J48
+ *   WEKA_CLASSIFIER_&lt;ID&gt;_NAME       nome nei risultati e nei file (default: l'id)
+ *   WEKA_CLASSIFIER_&lt;ID&gt;_OPTIONS    opzioni da riga di comando Weka, es. -C 0.25 -M 2
+ *   WEKA_CLASSIFIER_&lt;ID&gt;_THREADS    execution slots dei classificatori paralleli di Weka (RandomForest, Bagging...)
+ *   WEKA_CLASSIFIER_&lt;ID&gt;_SEARCH     solo IBk: linear | kdtree | balltree | covertree (vedi NeighbourSearches)
+ *   WEKA_CLASSIFIER_&lt;ID&gt;_NORMALIZATION solo IBk: incremental (default, come Weka) | training
+ *   WEKA_CLASSIFIER_&lt;ID&gt;_BATCH_SIZE dimensione dei batch di predizione (BatchPredictor)
+ * </pre>
+ * Le chiavi facoltative assenti lasciano il default del classificatore. THREADS si moltiplica con il
+ * parallelismo della griglia (WEKA_PARALLELISM): ogni cella di quel classificatore può usare fino a THREADS
+ * thread, quindi in tutto fino a WEKA_PARALLELISM × THREADS.
+ * Senza WEKA_CLASSIFIERS si usano NaiveBayes, RandomForest e IBk con le opzioni di default.
+ */
+public final class ClassifierRegistry {
+    private static final String PREFIX = "WEKA_CLASSIFIER_";
+
+    private ClassifierRegistry() {}
+
+    /** Un classificatore configurato: {@link #newClassifier()} ne crea un'istanza nuova, non addestrata. */
+    public record Entry(String id, String name, String className, String options,
+                        Integer threads, String search, String normalization, String batchSize) {
+
+        public Classifier newClassifier() {
+            Classifier classifier;
+            try {
+                classifier = AbstractClassifier.forName(className, Utils.splitOptions(options));
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Classificatore " + id + " non istanziabile: "
+                        + className + " " + options, e);
+            }
+            if (threads != null) setThreads(classifier);
+            if (search != null || normalization != null) setSearch(classifier);
+            if (batchSize != null) {
+                if (!(classifier instanceof AbstractClassifier abstractClassifier)) {
+                    throw new IllegalArgumentException(PREFIX + id + "_BATCH_SIZE non supportato da " + className);
+                }
+                abstractClassifier.setBatchSize(batchSize);
+            }
+            return classifier;
+        }
+
+        private void setThreads(Classifier classifier) {
+            if (classifier instanceof ParallelIteratedSingleClassifierEnhancer parallel) {
+                parallel.setNumExecutionSlots(threads);
+            } else if (classifier instanceof ParallelMultipleClassifiersCombiner parallel) {
+                parallel.setNumExecutionSlots(threads);
+            } else {
+                throw new IllegalArgumentException(PREFIX + id + "_THREADS non supportato da " + className);
+            }
+        }
+
+        private void setSearch(Classifier classifier) {
+            if (!(classifier instanceof IBk ibk)) {
+                throw new IllegalArgumentException(PREFIX + id + "_SEARCH/_NORMALIZATION supportati solo da IBk, non da "
+                        + className);
+            }
+            NeighbourSearches.configure(ibk, search == null ? "linear" : search,
+                    normalization == null ? NeighbourSearches.Normalization.INCREMENTAL
+                            : NeighbourSearches.normalization(normalization));
+        }
+    }
+
+    public static List<Entry> configured() {
+        String ids = ConfigManager.getString("WEKA_CLASSIFIERS", "");
+        if (ids.isEmpty()) {
+            return List.of(
+                    new Entry("NB", "naive bayes", "weka.classifiers.bayes.NaiveBayes", "", null, null, null, null),
+                    new Entry("RF", "random forest", "weka.classifiers.trees.RandomForest", "", null, null, null, null),
+                    new Entry("IBK", "IBK", "weka.classifiers.lazy.IBk", "", null, null, null, null));
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for (String raw : ids.split(",")) {
+            String id = raw.trim().toUpperCase(Locale.ROOT);
+            if (id.isEmpty()) continue;
+            String className = ConfigManager.getString(PREFIX + id + "_CLASS", "");
+            if (className.isEmpty()) {
+                throw new IllegalArgumentException("Manca " + PREFIX + id + "_CLASS in configuration.properties");
+            }
+            String threads = optional(id, "THREADS");
+            entries.add(new Entry(
+                    id,
+                    ConfigManager.getString(PREFIX + id + "_NAME", id),
+                    className,
+                    ConfigManager.getString(PREFIX + id + "_OPTIONS", ""),
+                    threads == null ? null : Integer.valueOf(threads),
+                    optional(id, "SEARCH"),
+                    optional(id, "NORMALIZATION"),
+                    optional(id, "BATCH_SIZE")));
+        }
+        return entries;
+    }
+
+    /** Valore di una chiave facoltativa; null se assente o vuota. */
+    private static String optional(String id, String key) {
+        String value = ConfigManager.getString(PREFIX + id + "_" + key, "");
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,260 @@
+package it.project.utils;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formato binario colonnare per i dataset di training/testing.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   int magic ("ISWC") | int version | int rows | int attributes | int classIndex
+ *   str relation | int nSegments | int[nSegments] segmentStart
+ *   per attributo: str name | byte type | byte width | int dictSize | str[dictSize] dictionary
+ *   per attributo, in ordine: colonna di rows valori da width byte
+ * </pre>
+ * Le stringhe (nominali e string) sono codificate a dizionario. Ogni colonna usa la larghezza
+ * minima che la rappresenta: 1/2/4 byte per interi e codici (il valore minimo del tipo indica
+ * missing), 8 byte per i double (NaN = missing). Le colonne restano a larghezza fissa, per cui
+ * una finestra di righe [from, to) si legge direttamente dal file mappato in memoria senza
+ * scorrere il resto. I segmenti memorizzano la prima riga di ogni release.
+ */
+public final class ColumnarDataset {
+    public static final String EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x49535743; // "ISWC"
+    private static final int VERSION = 2;
+    private static final byte NUMERIC = 0;
+    private static final byte NOMINAL = 1;
+    private static final byte STRING = 2;
+
+    private ColumnarDataset() {}
+
+    /* ================= scrittura ================= */
+
+    /**
+     * Scrive il dataset descritto da {@code header} con i valori già in forma colonnare
+     * (nominali/string come indice del valore, NaN = missing).
+     */
+    public static void write(File out, Instances header, double[][] columns, int[] segments) throws IOException {
+        int nAttr = header.numAttributes();
+        int rows = (nAttr == 0) ? 0 : columns[0].length;
+        File parent = out.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out), 1 << 16))) {
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(rows);
+            dos.writeInt(nAttr);
+            dos.writeInt(header.classIndex());
+            writeString(dos, header.relationName());
+            int[] segs = (segments == null) ? new int[0] : segments;
+            dos.writeInt(segs.length);
+            for (int s : segs) dos.writeInt(s);
+
+            int[] widths = new int[nAttr];
+            for (int a = 0; a < nAttr; a++) {
+                Attribute att = header.attribute(a);
+                widths[a] = widthOf(columns[a], rows);
+                writeString(dos, att.name());
+                dos.writeByte(typeOf(att));
+                dos.writeByte(widths[a]);
+                int dictSize = att.isNumeric() ? 0 : att.numValues();
+                dos.writeInt(dictSize);
+                for (int v = 0; v < dictSize; v++) writeString(dos, att.value(v));
+            }
+
+            for (int a = 0; a < nAttr; a++) {
+                double[] col = columns[a];
+                for (int r = 0; r < rows; r++) writeValue(dos, col[r], widths[a]);
+            }
+        }
+    }
+
+    /** Larghezza minima (1, 2, 4 o 8 byte) capace di rappresentare tutti i valori della colonna. */
+    private static int widthOf(double[] col, int rows) {
+        long min = 0;
+        long max = 0;
+        for (int r = 0; r < rows; r++) {
+            double v = col[r];
+            if (Utils.isMissingValue(v)) continue;
+            if (v != Math.rint(v) || Math.abs(v) > Integer.MAX_VALUE - 1) return Double.BYTES;
+            min = Math.min(min, (long) v);
+            max = Math.max(max, (long) v);
+        }
+        if (min > Byte.MIN_VALUE && max <= Byte.MAX_VALUE) return Byte.BYTES;
+        if (min > Short.MIN_VALUE && max <= Short.MAX_VALUE) return Short.BYTES;
+        return Integer.BYTES;
+    }
+
+    private static void writeValue(DataOutputStream dos, double v, int width) throws IOException {
+        boolean missing = Utils.isMissingValue(v);
+        switch (width) {
+            case Byte.BYTES -> dos.writeByte(missing ? Byte.MIN_VALUE : (int) v);
+            case Short.BYTES -> dos.writeShort(missing ? Short.MIN_VALUE : (int) v);
+            case Integer.BYTES -> dos.writeInt(missing ? Integer.MIN_VALUE : (int) v);
+            default -> dos.writeDouble(v);
+        }
+    }
+
+    private static double readValue(ByteBuffer buf, int pos, int width) {
+        long v;
+        switch (width) {
+            case Byte.BYTES -> v = (buf.get(pos) == Byte.MIN_VALUE) ? Long.MIN_VALUE : buf.get(pos);
+            case Short.BYTES -> v = (buf.getShort(pos) == Short.MIN_VALUE) ? Long.MIN_VALUE : buf.getShort(pos);
+            case Integer.BYTES -> v = (buf.getInt(pos) == Integer.MIN_VALUE) ? Long.MIN_VALUE : buf.getInt(pos);
+            default -> {
+                return buf.getDouble(pos);
+            }
+        }
+        return (v == Long.MIN_VALUE) ? Utils.missingValue() : v;
+    }
+
+    /** Converte un {@link Instances} già in memoria nel formato colonnare (un solo segmento). */
+    public static void write(File out, Instances data) throws IOException {
+        int nAttr = data.numAttributes();
+        int rows = data.numInstances();
+        double[][] columns = new double[nAttr][rows];
+        for (int r = 0; r < rows; r++) {
+            for (int a = 0; a < nAttr; a++) {
+                columns[a][r] = data.instance(r).value(a);
+            }
+        }
+        write(out, data, columns, new int[]{0});
+    }
+
+    /* ================= lettura ================= */
+
+    public static Instances load(File in) throws IOException {
+        return load(in, 0, Integer.MAX_VALUE);
+    }
+
+    /** Carica solo le righe [from, to) costruendo direttamente le {@link Instances}. */
+    public static Instances load(File in, int from, int to) throws IOException {
+        try (FileChannel ch = FileChannel.open(in.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            Header h = readHeader(buf, in);
+
+            int start = Math.clamp(from, 0, h.rows);
+            int end = Math.clamp(to, start, h.rows);
+            int n = end - start;
+
+            Instances data = new Instances(h.relation, h.attributes, n);
+            double[][] values = new double[n][h.attributes.size()];
+
+            int offset = buf.position();
+            for (int a = 0; a < h.attributes.size(); a++) {
+                int width = h.widths[a];
+                int base = offset + start * width;
+                for (int r = 0; r < n; r++) {
+                    values[r][a] = readValue(buf, base + r * width, width);
+                }
+                offset += h.rows * width;
+            }
+
+            for (double[] row : values) data.add(new DenseInstance(1.0, row));
+            if (h.classIndex >= 0) data.setClassIndex(h.classIndex);
+            return data;
+        }
+    }
+
+    /** Prima riga di ciascun segmento (release) memorizzato nel file. */
+    public static int[] readSegments(File in) throws IOException {
+        try (FileChannel ch = FileChannel.open(in.toPath(), StandardOpenOption.READ)) {
+            return readHeader(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()), in).segments;
+        }
+    }
+
+    /* ================= helpers ================= */
+
+    private static final class Header {
+        final int rows;
+        final int classIndex;
+        final String relation;
+        final int[] segments;
+        final ArrayList<Attribute> attributes;
+        final int[] widths;
+        Header(int rows, int classIndex, String relation, int[] segments, ArrayList<Attribute> attributes, int[] widths) {
+            this.rows = rows;
+            this.classIndex = classIndex;
+            this.relation = relation;
+            this.segments = segments;
+            this.attributes = attributes;
+            this.widths = widths;
+        }
+    }
+
+    private static Header readHeader(ByteBuffer buf, File in) throws IOException {
+        if (buf.getInt() != MAGIC) throw new IOException("Non è un dataset colonnare: " + in.getAbsolutePath());
+        int version = buf.getInt();
+        if (version != VERSION) throw new IOException("Versione formato colonnare non supportata: " + version);
+
+        int rows = buf.getInt();
+        int nAttr = buf.getInt();
+        int classIndex = buf.getInt();
+        String relation = readString(buf);
+        int[] segments = new int[buf.getInt()];
+        for (int i = 0; i < segments.length; i++) segments[i] = buf.getInt();
+
+        ArrayList<Attribute> attributes = new ArrayList<>(nAttr);
+        int[] widths = new int[nAttr];
+        for (int a = 0; a < nAttr; a++) {
+            String name = readString(buf);
+            byte type = buf.get();
+            widths[a] = buf.get();
+            int dictSize = buf.getInt();
+            List<String> dict = new ArrayList<>(dictSize);
+            for (int v = 0; v < dictSize; v++) dict.add(readString(buf));
+            attributes.add(toAttribute(name, type, dict));
+        }
+        return new Header(rows, classIndex, relation, segments, attributes, widths);
+    }
+
+    private static Attribute toAttribute(String name, byte type, List<String> dict) {
+        switch (type) {
+            case NUMERIC:
+                return new Attribute(name);
+            case NOMINAL:
+                return new Attribute(name, dict);
+            default:
+                Attribute att = new Attribute(name, (List<String>) null);
+                for (String v : dict) att.addStringValue(v);
+                return att;
+        }
+    }
+
+    private static byte typeOf(Attribute att) {
+        if (att.isNumeric()) return NUMERIC;
+        if (att.isNominal()) return NOMINAL;
+        if (att.isString()) return STRING;
+        throw new IllegalArgumentException("Tipo di attributo non supportato nel formato colonnare: " + att);
+    }
+
+    private static void writeString(DataOutputStream dos, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
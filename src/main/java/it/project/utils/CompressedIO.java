@@ -0,0 +1,281 @@
+package it.project.utils;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import weka.core.Instances;
+import weka.core.converters.ArffLoader;
+import weka.core.converters.CSVLoader;
+import weka.core.converters.ConverterUtils.DataSource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressione trasparente dei dataset generati (CSV/ARFF).
+ *
+ * In scrittura il codec è scelto da OUTPUT_COMPRESSION in configuration.properties
+ * (none | gzip | zstd) e aggiunge al nome del file il suffisso .gz o .zst.
+ * In lettura il codec viene riconosciuto dai magic bytes, quindi i loader accettano
+ * indifferentemente file compressi e non; {@link #existing(File)} risolve un path "in chiaro"
+ * nella variante compressa eventualmente presente su disco. Riscrivere con successo un file ne cancella le
+ * copie con un altro codec, così su disco ne resta una sola.
+ */
+public final class CompressedIO {
+    private static final Logger LOG = Logger.getLogger(CompressedIO.class.getName());
+    private static final int BUFFER = 1 << 16;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int GZIP_MAGIC = 0x1f8b;
+    private static final int ZSTD_MAGIC = 0xFD2FB528;
+
+    public enum Codec {
+        NONE(""), GZIP(".gz"), ZSTD(".zst");
+
+        private final String suffix;
+
+        Codec(String suffix) {
+            this.suffix = suffix;
+        }
+
+        public String suffix() {
+            return suffix;
+        }
+
+        static Codec fromName(String fileName) {
+            if (fileName.endsWith(GZIP.suffix)) return GZIP;
+            if (fileName.endsWith(ZSTD.suffix)) return ZSTD;
+            return NONE;
+        }
+    }
+
+    private static final Codec CONFIGURED = parse(ConfigManager.getString("OUTPUT_COMPRESSION", "none"));
+
+    private CompressedIO() {}
+
+    private static Codec parse(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "gz" -> Codec.GZIP;
+            case "zstd", "zst" -> Codec.ZSTD;
+            default -> Codec.NONE;
+        };
+    }
+
+    public static Codec configured() {
+        return CONFIGURED;
+    }
+
+    /* ================= scrittura ================= */
+
+    /** Path effettivo di un output: quello richiesto più il suffisso del codec configurato. */
+    public static File target(File plain) {
+        return (CONFIGURED == Codec.NONE) ? plain : new File(plain.getPath() + CONFIGURED.suffix());
+    }
+
+    /**
+     * Stream di scrittura compresso secondo il suffisso del file (.gz / .zst), altrimenti bufferizzato.
+     * Se il file viene riscritto (non in append) si scrive su un file temporaneo accanto, spostato sul nome
+     * finale alla chiusura solo se nessuna scrittura è fallita; dopo lo spostamento si cancellano le copie con
+     * un altro codec, altrimenti {@link #existing(File)} continuerebbe a trovare, ad esempio, il .csv in chiaro
+     * accanto al .csv.zst appena scritto. Se una scrittura fallisce restano le copie precedenti.
+     */
+    public static OutputStream openOutput(File file, boolean append) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        File destination = append ? file : new File(file.getPath() + TEMP_SUFFIX);
+        OutputStream raw = new FileOutputStream(destination, append);
+        OutputStream out = switch (Codec.fromName(file.getName())) {
+            case GZIP -> new GZIPOutputStream(raw, BUFFER);
+            case ZSTD -> new BufferedOutputStream(new ZstdOutputStream(raw), BUFFER);
+            case NONE -> new BufferedOutputStream(raw, BUFFER);
+        };
+        return append ? out : new ReplacingOutputStream(out, destination, file);
+    }
+
+    /** Cancella le varianti di {@code file} con un codec diverso (x.csv, x.csv.gz, x.csv.zst). */
+    public static void removeOtherCodecs(File file) throws IOException {
+        String plain = stripSuffix(file.getPath());
+        for (Codec c : Codec.values()) {
+            File other = new File(plain + c.suffix());
+            if (!other.getPath().equals(file.getPath())) Files.deleteIfExists(other.toPath());
+        }
+    }
+
+    /** Scrive su {@code temp}; alla chiusura, se nessuna operazione è fallita, lo sposta su {@code file}. */
+    private static final class ReplacingOutputStream extends FilterOutputStream {
+        private final File temp;
+        private final File file;
+        private boolean failed;
+        private boolean closed;
+
+        ReplacingOutputStream(OutputStream out, File temp, File file) {
+            super(out);
+            this.temp = temp;
+            this.file = file;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            try {
+                out.write(b);
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                out.write(b, off, len);
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            try {
+                out.flush();
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                super.close();
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw e;
+            } finally {
+                if (failed) {
+                    Files.deleteIfExists(temp.toPath());
+                    LOG.log(Level.WARNING, "Scrittura fallita, mantenuta la copia precedente di {0}", file);
+                }
+            }
+            if (failed) return;
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException _) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            removeOtherCodecs(file);
+        }
+    }
+
+    public static Writer openWriter(File file, boolean append) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(openOutput(file, append), StandardCharsets.UTF_8), BUFFER);
+    }
+
+    /* ================= lettura ================= */
+
+    /**
+     * La variante su disco di un path "in chiaro": prima quella del codec configurato, poi le altre
+     * (in chiaro, .gz, .zst). Più varianti insieme vengono da file scritti prima che il codec cambiasse:
+     * si segnala quale viene letta.
+     */
+    public static File existing(File plain) {
+        File chosen = null;
+        int found = 0;
+        for (Codec c : readOrder()) {
+            File candidate = new File(plain.getPath() + c.suffix());
+            if (candidate.exists()) {
+                if (chosen == null) chosen = candidate;
+                found++;
+            }
+        }
+        if (found > 1) {
+            LOG.log(Level.WARNING, "Trovate {0} copie di {1} con codec diversi: si legge {2}",
+                    new Object[]{found, plain.getPath(), chosen.getName()});
+        }
+        return chosen != null ? chosen : plain;
+    }
+
+    private static Codec[] readOrder() {
+        return switch (CONFIGURED) {
+            case NONE -> new Codec[]{Codec.NONE, Codec.GZIP, Codec.ZSTD};
+            case GZIP -> new Codec[]{Codec.GZIP, Codec.NONE, Codec.ZSTD};
+            case ZSTD -> new Codec[]{Codec.ZSTD, Codec.NONE, Codec.GZIP};
+        };
+    }
+
+    /** Nome senza suffisso di compressione (es. "x.arff.gz" → "x.arff"). */
+    public static String stripSuffix(String fileName) {
+        Codec c = Codec.fromName(fileName);
+        return fileName.substring(0, fileName.length() - c.suffix().length());
+    }
+
+    /** Stream di lettura decompresso, codec riconosciuto dai primi byte del file. */
+    public static InputStream openInput(File file) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER);
+        in.mark(4);
+        byte[] head = in.readNBytes(4);
+        in.reset();
+
+        if (head.length >= 2 && ((head[0] & 0xff) << 8 | (head[1] & 0xff)) == GZIP_MAGIC) {
+            return new GZIPInputStream(in, BUFFER);
+        }
+        if (head.length == 4 && littleEndianInt(head) == ZSTD_MAGIC) {
+            return new BufferedInputStream(new ZstdInputStream(in), BUFFER);
+        }
+        return in;
+    }
+
+    private static int littleEndianInt(byte[] b) {
+        return (b[0] & 0xff) | (b[1] & 0xff) << 8 | (b[2] & 0xff) << 16 | (b[3] & 0xff) << 24;
+    }
+
+    public static Reader openReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(openInput(file), StandardCharsets.UTF_8), BUFFER);
+    }
+
+    /**
+     * Carica un dataset Weka da un path ARFF/CSV, compresso o no. I file non compressi passano
+     * da {@link DataSource} come prima; quelli compressi vengono decompressi in streaming.
+     */
+    public static Instances loadInstances(File file) throws Exception {
+        File f = existing(file);
+        if (Codec.fromName(f.getName()) == Codec.NONE) {
+            return new DataSource(f.getPath()).getDataSet();
+        }
+
+        String plainName = stripSuffix(f.getName()).toLowerCase(Locale.ROOT);
+        if (plainName.endsWith(".csv")) {
+            try (InputStream in = openInput(f)) {
+                CSVLoader loader = new CSVLoader();
+                loader.setSource(in);
+                return loader.getDataSet();
+            }
+        }
+        try (Reader reader = openReader(f)) {
+            return new ArffLoader.ArffReader(reader).getData();
+        }
+    }
+}
@@ -30,4 +30,25 @@ public class ConfigManager {
     public static String getRepositoryUrl() {
         return properties.getProperty("REPOSITORY_PATH");
     }
+
+    public static String getString(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return (value == null) ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            Logger.getAnonymousLogger().log(Level.WARNING, "Valore non intero per {0}: uso {1}", new Object[]{key, defaultValue});
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return (value == null) ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
 }
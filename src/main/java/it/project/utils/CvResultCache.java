@@ -0,0 +1,109 @@
+package it.project.utils;
+
+import weka.classifiers.Classifier;
+import weka.core.Instances;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Cache persistente delle metriche di cross-validation (quelle loggate da WekaClassifier).
+ *
+ * La chiave è lo SHA-256 di: contenuto del training set (header e valori, non il nome della relazione),
+ * classificatore con le sue opzioni, feature selection, seed, numero di fold e classe positiva. Se uno
+ * di questi cambia la chiave cambia, quindi le voci non vanno mai invalidate: al più restano orfane.
+ * Un file .properties per progetto sotto OUTPUT_PATH, letto una volta e riscritto a fine valutazione se ci
+ * sono voci nuove.
+ */
+public final class CvResultCache {
+    /** Metriche CV sulla classe positiva (kappa è globale). */
+    public record Metrics(double precision, double recall, double fMeasure, double auc, double kappa) {
+        String encode() {
+            return precision + "," + recall + "," + fMeasure + "," + auc + "," + kappa;
+        }
+
+        static Metrics decode(String value) {
+            String[] v = value.split(",");
+            if (v.length != 5) return null;
+            return new Metrics(Double.parseDouble(v[0]), Double.parseDouble(v[1]), Double.parseDouble(v[2]),
+                    Double.parseDouble(v[3]), Double.parseDouble(v[4]));
+        }
+    }
+
+    private final File file;
+    private final Properties entries = new Properties(); // Hashtable: accessi concorrenti dalle celle
+    private volatile boolean dirty;
+
+    private CvResultCache(File file) {
+        this.file = file;
+    }
+
+    public static CvResultCache forProject(String projectName) throws IOException {
+        String outputPath = ConfigManager.getString("OUTPUT_PATH", "src/main/resources").trim();
+        return load(Paths.get(outputPath).resolve(projectName.toLowerCase()).resolve("cv_cache.properties").toFile());
+    }
+
+    public static CvResultCache load(File file) throws IOException {
+        CvResultCache cache = new CvResultCache(file);
+        if (file.isFile()) {
+            try (Reader r = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                cache.entries.load(r);
+            }
+        }
+        return cache;
+    }
+
+    public Metrics get(String key) {
+        String value = entries.getProperty(key);
+        if (value == null) return null;
+        try {
+            return Metrics.decode(value);
+        } catch (NumberFormatException e) {
+            return null; // voce corrotta: verrà ricalcolata e sovrascritta
+        }
+    }
+
+    public void put(String key, Metrics metrics) {
+        entries.setProperty(key, metrics.encode());
+        dirty = true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Come FeatureSelectionCache.save: dirty torna false prima di copiare le voci, così una put concorrente
+     * (le celle in corso non si fermano con shutdownNow) resta da salvare; se la scrittura fallisce torna true.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) return;
+        dirty = false;
+        try {
+            Properties snapshot = new Properties();
+            snapshot.putAll(entries);
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null) Files.createDirectories(dir.toPath());
+            try (Writer w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                snapshot.store(w, "Metriche 10-fold CV per impronta (training set, classificatore, feature selection, seed)");
+            }
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            throw e;
+        }
+    }
+
+    public static String key(Instances train, Classifier classifier, String featureSelection,
+                             long seed, int folds, int positiveClass) {
+        String config = DatasetFingerprint.describe(classifier)
+                + '|' + (featureSelection == null ? "" : featureSelection)
+                + '|' + seed + '|' + folds + '|' + positiveClass;
+        return DatasetFingerprint.of(train, config);
+    }
+}
@@ -0,0 +1,69 @@
+package it.project.utils;
+
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.OptionHandler;
+import weka.core.Utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Impronta SHA-256 di un dataset Weka più una stringa di configurazione, usata come chiave dalle cache
+ * dei risultati (CV, feature selection). Entrano header (attributi, tipi, valori nominali, class index)
+ * e valori/pesi delle istanze; il nome della relazione no, perché cambia con filtri e iterazioni.
+ */
+public final class DatasetFingerprint {
+    private static final int BUFFER = 1 << 16;
+
+    private DatasetFingerprint() {}
+
+    public static String of(Instances data, String config) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+        digest.update(config.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder header = new StringBuilder();
+        header.append(data.classIndex()).append('\n');
+        for (int a = 0; a < data.numAttributes(); a++) {
+            Attribute att = data.attribute(a);
+            header.append(att.name()).append('\t').append(att.type());
+            for (int v = 0; v < att.numValues(); v++) header.append('\t').append(att.value(v));
+            header.append('\n');
+        }
+        digest.update(header.toString().getBytes(StandardCharsets.UTF_8));
+
+        int row = (data.numAttributes() + 1) * Double.BYTES;
+        ByteBuffer buf = ByteBuffer.allocate(Math.max(BUFFER, row));
+        for (int i = 0; i < data.numInstances(); i++) {
+            if (buf.remaining() < row) flush(digest, buf);
+            Instance inst = data.instance(i);
+            for (int a = 0; a < data.numAttributes(); a++) buf.putDouble(inst.value(a));
+            buf.putDouble(inst.weight());
+        }
+        flush(digest, buf);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Classe + opzioni (se OptionHandler) di un componente Weka: classificatore, evaluator, ricerca. */
+    public static String describe(Object component) {
+        if (component instanceof OptionHandler options) {
+            return component.getClass().getName() + " " + Utils.joinOptions(options.getOptions());
+        }
+        return component.getClass().getName();
+    }
+
+    private static void flush(MessageDigest digest, ByteBuffer buf) {
+        buf.flip();
+        digest.update(buf);
+        buf.clear();
+    }
+}
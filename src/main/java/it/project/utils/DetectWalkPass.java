@@ -29,7 +29,7 @@ public class DetectWalkPass {
 
 
         Pattern p = Pattern.compile(
-                Pattern.quote(projName) + "_testing_iter_(\\d+)\\.arff"
+                Pattern.quote(projName) + "_testing_iter_(\\d+)\\.arff(\\.gz|\\.zst)?"
         );
 
         int maxIter = 0;
@@ -48,7 +48,7 @@ public class DetectWalkPass {
 
         if (maxIter == 0) {
             throw new IllegalStateException(
-                    "Nessun file trovato con pattern \"" + projName + "_testing_iter_<i>.arff\" in " + testingDir.toAbsolutePath()
+                    "Nessun file trovato con pattern \"" + projName + "_testing_iter_<i>.arff[.gz|.zst]\" in " + testingDir.toAbsolutePath()
             );
         }
 
@@ -0,0 +1,171 @@
+package it.project.utils;
+
+import weka.attributeSelection.ASEvaluation;
+import weka.attributeSelection.ASSearch;
+import weka.core.Instances;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Cache degli attributi selezionati dalle feature selection, in memoria e su disco.
+ *
+ * Gli indici selezionati dipendono solo dal training set e dalla configurazione di evaluator e ricerca:
+ * la chiave è l'impronta di questi tre (DatasetFingerprint), quindi una voce vale finché il dataset
+ * non cambia e si può riusare tra classificatori, fasi e run. Un file .properties per progetto
+ * (OUTPUT_PATH/&lt;progetto&gt;/fs_cache.properties, come gli altri output per progetto) e una sola istanza per file nella JVM,
+ * così WekaClassifier e i classificatori della fase smell impact condividono le stesse voci.
+ *
+ * Due tipi di voce, distinti nella chiave:
+ *   - "selected": risultato finale di AttributeSelection (post-processing incluso, classe in coda);
+ *   - "search":   output grezzo della ricerca, per {@link CachedSearch} dentro AttributeSelectedClassifier.
+ */
+public final class FeatureSelectionCache {
+    private static final Logger LOG = Logger.getLogger(FeatureSelectionCache.class.getName());
+    private static final Map<String, FeatureSelectionCache> OPEN = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final Map<String, int[]> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    private FeatureSelectionCache(File file) {
+        this.file = file;
+    }
+
+    public static FeatureSelectionCache forProject(String projectName) {
+        String outputPath = ConfigManager.getString("OUTPUT_PATH", "src/main/resources").trim();
+        return forFile(Paths.get(outputPath).resolve(projectName.toLowerCase()).resolve("fs_cache.properties").toFile());
+    }
+
+    public static FeatureSelectionCache forFile(File file) {
+        return OPEN.computeIfAbsent(file.getAbsolutePath(), k -> {
+            FeatureSelectionCache cache = new FeatureSelectionCache(file);
+            try {
+                cache.load();
+            } catch (IOException | NumberFormatException e) {
+                LOG.log(Level.WARNING, "Cache feature selection non leggibile, si riparte vuota: {0}", file);
+                cache.entries.clear();
+            }
+            return cache;
+        });
+    }
+
+    /** Salva tutte le cache aperte con voci nuove; gli errori vengono solo loggati. */
+    public static void saveAll() {
+        for (FeatureSelectionCache cache : OPEN.values()) {
+            try {
+                cache.save();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Impossibile salvare la cache feature selection " + cache.file, e);
+            }
+        }
+    }
+
+    public static String key(String kind, Instances train, ASEvaluation evaluator, ASSearch search) {
+        return DatasetFingerprint.of(train,
+                kind + '|' + DatasetFingerprint.describe(evaluator) + '|' + DatasetFingerprint.describe(search));
+    }
+
+    public int[] get(String key) {
+        int[] selected = entries.get(key);
+        return selected == null ? null : selected.clone();
+    }
+
+    public void put(String key, int[] selected) {
+        entries.put(key, selected.clone());
+        dirty = true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void load() throws IOException {
+        if (!file.isFile()) return;
+        Properties props = new Properties();
+        try (Reader r = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            props.load(r);
+        }
+        for (String key : props.stringPropertyNames()) {
+            String value = props.getProperty(key).trim();
+            entries.put(key, value.isEmpty() ? new int[0]
+                    : Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray());
+        }
+    }
+
+    /**
+     * dirty torna false prima di copiare le voci, così una put concorrente resta da salvare; se la scrittura
+     * fallisce torna true e il prossimo save (ad esempio saveAll a fine run) riprova.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) return;
+        dirty = false;
+        try {
+            Properties props = new Properties();
+            entries.forEach((key, selected) -> props.setProperty(key,
+                    Arrays.stream(selected).mapToObj(Integer::toString).collect(Collectors.joining(","))));
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null) Files.createDirectories(dir.toPath());
+            try (Writer w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                props.store(w, "Attributi selezionati per impronta (training set, evaluator, ricerca)");
+            }
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Ricerca che memoizza l'output di un'altra ricerca: per AttributeSelectedClassifier, che esegue la
+     * selezione dentro buildClassifier. La configurazione della ricerca interna (es. start set di
+     * BestFirst) è letta al momento della chiamata, quindi può essere cambiata dopo la costruzione.
+     * Serializzabile (makeCopy): la cache è risolta dal percorso del file.
+     */
+    public static final class CachedSearch extends ASSearch {
+        private static final long serialVersionUID = 1L;
+
+        private final ASSearch delegate;
+        private final String cacheFile;
+
+        public CachedSearch(ASSearch delegate, FeatureSelectionCache cache) {
+            this.delegate = delegate;
+            this.cacheFile = cache.file.getPath();
+        }
+
+        public ASSearch getDelegate() {
+            return delegate;
+        }
+
+        @Override
+        public int[] search(ASEvaluation evaluator, Instances data) throws Exception {
+            FeatureSelectionCache cache = forFile(new File(cacheFile));
+            String key = key("search", data, evaluator, delegate);
+            int[] cached = cache.get(key);
+            if (cached != null) {
+                RunMetrics.hit("featureSelection.search");
+                return cached;
+            }
+            RunMetrics.miss("featureSelection.search");
+            int[] selected = delegate.search(evaluator, data);
+            cache.put(key, selected);
+            return selected;
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package it.project.utils;
 
+import it.project.entities.JavaClass;
+import it.project.entities.JavaMethod;
+import it.project.entities.Release;
 import weka.core.Attribute;
 import weka.core.Instances;
+import weka.core.Utils;
 import weka.core.converters.ArffSaver;
 import weka.core.converters.CSVLoader;
 import weka.filters.Filter;
@@ -11,7 +15,14 @@ import weka.filters.unsupervised.attribute.Reorder;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -20,11 +31,282 @@ public class FileARFFGenerator {
 
     private final String projectName;
     private final int index;
+    private final boolean sparse;
     private static final String PATH = "src/main/resources/";
 
+    /* Nomi delle colonne identificative rimosse dal CSV (Remove -R1,2,3) */
+    private static final String REMOVED_ID_COLUMNS = "1,2,3";
+    private static final String CLASS_NAME = "isBuggy";
+    private static final String WEEKEND_COMMIT = "WeekendCommit";
+
+    /* Schema fisso delle feature, nello stesso ordine canonico usato da reorderByNames */
+    private static final Map<String, ToDoubleFunction<JavaMethod>> FEATURES = new LinkedHashMap<>();
+    static {
+        FEATURES.put("LOC", JavaMethod::getLoc);
+        FEATURES.put("CyclomaticComplexity", JavaMethod::getCyclomaticComplexity);
+        FEATURES.put("Churn", JavaMethod::getChurn);
+        FEATURES.put("LocAdded", JavaMethod::getLocAdded);
+        FEATURES.put("fan-in", JavaMethod::getFanIn);
+        FEATURES.put("fan-out", JavaMethod::getFanOut);
+        FEATURES.put("NewcomerRisk", JavaMethod::getNewcomerRisk);
+        FEATURES.put("Auth", JavaMethod::getnAuth);
+        FEATURES.put(WEEKEND_COMMIT, JavaMethod::getWeekendCommit);
+        FEATURES.put("nSmell", JavaMethod::getnSmells);
+    }
+
+    /** Formato (denso o sparse) da ARFF_SPARSE in configuration.properties, default denso. */
     public FileARFFGenerator(String projectName, int index) {
+        this(projectName, index, ConfigManager.getBoolean("ARFF_SPARSE", false));
+    }
+
+    public FileARFFGenerator(String projectName, int index, boolean sparse) {
         this.projectName = projectName;
         this.index = index;
+        this.sparse = sparse;
+    }
+
+    /* ================= scrittura diretta dal modello ================= */
+
+    public void generateTrainingArff(List<Release> releases) throws IOException {
+        String baseName = projectName + "_training_iter_" + index;
+        writeArff(releases, baseName, PATH + projectName.toLowerCase() + "/training/ARFF/" + baseName + ".arff");
+    }
+
+    public void generateTestingArff(List<Release> releases) throws IOException {
+        String baseName = projectName + "_testing_iter_" + index;
+        writeArff(releases, baseName, PATH + projectName.toLowerCase() + "/testing/ARFF/" + baseName + ".arff");
+    }
+
+    public void generateFullArff(List<Release> releases) throws IOException {
+        String baseName = projectName + "_fullDataset";
+        writeArff(releases, baseName, PATH + projectName.toLowerCase() + "/otherFiles/" + baseName + ".arff");
+    }
+
+    public void generateTrainingColumnar(List<Release> releases) throws IOException {
+        String baseName = projectName + "_training_iter_" + index;
+        writeColumnar(releases, baseName, PATH + projectName.toLowerCase() + "/training/BIN/" + baseName + ColumnarDataset.EXTENSION);
+    }
+
+    public void generateTestingColumnar(List<Release> releases) throws IOException {
+        String baseName = projectName + "_testing_iter_" + index;
+        writeColumnar(releases, baseName, PATH + projectName.toLowerCase() + "/testing/BIN/" + baseName + ColumnarDataset.EXTENSION);
+    }
+
+    public void generateFullColumnar(List<Release> releases) throws IOException {
+        String baseName = projectName + "_fullDataset";
+        writeColumnar(releases, baseName, PATH + projectName.toLowerCase() + "/otherFiles/" + baseName + ColumnarDataset.EXTENSION);
+    }
+
+    /** Schema calcolato al primo passaggio sul modello: attributi mantenuti, valori classe, header Weka, segmenti per release. */
+    private static final class Schema {
+        final List<Integer> kept;
+        final List<String> classValues;
+        final Instances header;
+        final int rows;
+        final int[] segments;
+        Schema(List<Integer> kept, List<String> classValues, Instances header, int rows, int[] segments) {
+            this.kept = kept;
+            this.classValues = classValues;
+            this.header = header;
+            this.rows = rows;
+            this.segments = segments;
+        }
+    }
+
+    /** Primo passaggio sul modello: feature non costanti, ordine dei valori della classe e segmenti per release. */
+    private Schema buildSchema(List<Release> releases, String baseName) {
+        List<String> names = new ArrayList<>(FEATURES.keySet());
+        List<ToDoubleFunction<JavaMethod>> getters = new ArrayList<>(FEATURES.values());
+        int nFeat = names.size();
+        double[] first = new double[nFeat];
+        boolean[] varies = new boolean[nFeat];
+        List<String> classValues = new ArrayList<>();
+        int[] segments = new int[releases.size()];
+        int rows = 0;
+
+        for (int r = 0; r < releases.size(); r++) {
+            segments[r] = rows;
+            for (JavaClass jc : releases.get(r).getJavaClassList()) {
+                for (JavaMethod jm : jc.getMethods()) {
+                    for (int f = 0; f < nFeat; f++) {
+                        double v = arffValue(getters.get(f).applyAsDouble(jm));
+                        if (rows == 0) first[f] = v;
+                        else if (v != first[f]) varies[f] = true;
+                    }
+                    if (!classValues.contains(jm.isBuggy())) classValues.add(jm.isBuggy());
+                    rows++;
+                }
+            }
+        }
+
+        Instances header = buildHeader(baseName, varies, classValues);
+        List<Integer> kept = new ArrayList<>();
+        for (int a = 0; a < header.numAttributes() - 1; a++) {
+            kept.add(names.indexOf(header.attribute(a).name()));
+        }
+
+        return new Schema(kept, classValues, header, rows, segments);
+    }
+
+    /** Nomi delle feature dello schema fisso, in ordine canonico (senza la classe). */
+    static List<String> featureNames() {
+        return new ArrayList<>(FEATURES.keySet());
+    }
+
+    /** Valori di tutte le feature dello schema fisso, una colonna per feature, nell'ordine release → classe → metodo. */
+    static double[][] featureColumns(List<Release> releases) {
+        List<ToDoubleFunction<JavaMethod>> getters = new ArrayList<>(FEATURES.values());
+        int rows = 0;
+        for (Release release : releases) {
+            for (JavaClass jc : release.getJavaClassList()) rows += jc.getMethods().size();
+        }
+
+        double[][] columns = new double[getters.size()][rows];
+        int row = 0;
+        for (Release release : releases) {
+            for (JavaClass jc : release.getJavaClassList()) {
+                for (JavaMethod jm : jc.getMethods()) {
+                    for (int f = 0; f < getters.size(); f++) {
+                        columns[f][row] = arffValue(getters.get(f).applyAsDouble(jm));
+                    }
+                    row++;
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Header Weka che avrebbe prodotto la catena CSVLoader → Remove → RemoveUseless → Reorder, dati
+     * gli attributi non costanti ({@code varies}, indicizzato come {@link #featureNames()}) e i valori
+     * della classe in ordine di prima occorrenza. WeekendCommit è sempre presente.
+     */
+    static Instances buildHeader(String baseName, boolean[] varies, List<String> classValues) {
+        List<String> names = featureNames();
+
+        // Layout come dopo RemoveUseless (+ WeekendCommit reinserito in coda se rimosso)
+        List<Integer> kept = new ArrayList<>();
+        for (int f = 0; f < names.size(); f++) {
+            if (varies[f]) kept.add(f);
+        }
+        List<String> layout = new ArrayList<>();
+        for (int f : kept) layout.add(names.get(f));
+        layout.add(CLASS_NAME);
+        int weekendIdx = names.indexOf(WEEKEND_COMMIT);
+        if (!varies[weekendIdx]) {
+            kept.add(weekendIdx);
+            kept.sort(null);
+            layout.add(WEEKEND_COMMIT);
+        }
+
+        // Spec di Reorder calcolata sul layout intermedio (1-based), classe in coda
+        StringBuilder spec = new StringBuilder();
+        for (int f : kept) spec.append(layout.indexOf(names.get(f)) + 1).append(",");
+        spec.append(layout.indexOf(CLASS_NAME) + 1);
+
+        String relation = baseName
+                + "-weka.filters.unsupervised.attribute.Remove-R" + REMOVED_ID_COLUMNS
+                + "-weka.filters.unsupervised.attribute.RemoveUseless-M0.0"
+                + "-weka.filters.unsupervised.attribute.Reorder-R" + spec;
+
+        ArrayList<Attribute> attributes = new ArrayList<>();
+        for (int f : kept) attributes.add(new Attribute(names.get(f)));
+        attributes.add(new Attribute(CLASS_NAME, classValues));
+        Instances header = new Instances(relation, attributes, 0);
+        header.setClassIndex(header.numAttributes() - 1);
+        return header;
+    }
+
+    /**
+     * Scrive l'ARFF leggendo direttamente Release/JavaMethod, senza passare da CSV → CSVLoader → filtri.
+     * L'output è identico a quello di {@link #csvToARFF}, numerici formattati come ArffSaver (6 decimali).
+     */
+    private void writeArff(List<Release> releases, String baseName, String arffFile) throws IOException {
+        Schema schema = buildSchema(releases, baseName);
+        List<ToDoubleFunction<JavaMethod>> getters = new ArrayList<>(FEATURES.values());
+
+        // 2° passaggio: righe in streaming
+        File out = CompressedIO.target(new File(arffFile));
+        // Writer diretto, non PrintWriter: gli errori di scrittura (disco pieno, stream zstd/gzip) devono
+        // arrivare al chiamante; '\n' esplicito come ArffSaver, indipendente dalla piattaforma
+        try (Writer w = CompressedIO.openWriter(out, false)) {
+            w.write(schema.header.toString());
+            StringBuilder row = new StringBuilder(128);
+            for (Release release : releases) {
+                for (JavaClass jc : release.getJavaClassList()) {
+                    for (JavaMethod jm : jc.getMethods()) {
+                        row.setLength(0);
+                        appendRow(row, jm, schema.kept, getters, schema.classValues);
+                        row.append('\n');
+                        w.append(row);
+                    }
+                }
+            }
+        }
+        LOG.log(Level.INFO, "ARFF scritto: {0}", out);
+    }
+
+    /**
+     * Valore numerico come lo rilegge Weka dall'ARFF (6 decimali): i file colonnari e il TrainingSetStore
+     * devono dare ai classificatori gli stessi double del percorso ARFF, anche nelle fingerprint delle cache.
+     */
+    static double arffValue(double v) {
+        return Double.parseDouble(Utils.doubleToString(v, 6));
+    }
+
+    /** Stesso schema dell'ARFF, salvato nel formato binario colonnare di {@link ColumnarDataset}. */
+    private void writeColumnar(List<Release> releases, String baseName, String binFile) throws IOException {
+        Schema schema = buildSchema(releases, baseName);
+        List<ToDoubleFunction<JavaMethod>> getters = new ArrayList<>(FEATURES.values());
+        int nAttr = schema.kept.size() + 1;
+        double[][] columns = new double[nAttr][schema.rows];
+
+        int row = 0;
+        for (Release release : releases) {
+            for (JavaClass jc : release.getJavaClassList()) {
+                for (JavaMethod jm : jc.getMethods()) {
+                    for (int c = 0; c < nAttr - 1; c++) {
+                        columns[c][row] = arffValue(getters.get(schema.kept.get(c)).applyAsDouble(jm));
+                    }
+                    columns[nAttr - 1][row] = schema.classValues.indexOf(jm.isBuggy());
+                    row++;
+                }
+            }
+        }
+
+        ColumnarDataset.write(new File(binFile), schema.header, columns, schema.segments);
+        LOG.log(Level.INFO, "Dataset colonnare scritto: {0}", binFile);
+    }
+
+    private void appendRow(StringBuilder row, JavaMethod jm, List<Integer> kept,
+                           List<ToDoubleFunction<JavaMethod>> getters, List<String> classValues) {
+        int classPos = kept.size();
+        int classIdx = classValues.indexOf(jm.isBuggy());
+
+        if (!sparse) {
+            for (int f : kept) {
+                row.append(Utils.doubleToString(getters.get(f).applyAsDouble(jm), 6)).append(',');
+            }
+            row.append(Utils.quote(jm.isBuggy()));
+            return;
+        }
+
+        // Formato sparse di SparseInstance: solo valori non nulli, "{indice valore,...}"
+        row.append('{');
+        boolean firstEntry = true;
+        for (int pos = 0; pos < classPos; pos++) {
+            double v = getters.get(kept.get(pos)).applyAsDouble(jm);
+            if (v != 0.0) {
+                if (!firstEntry) row.append(',');
+                row.append(pos).append(' ').append(Utils.doubleToString(v, 6));
+                firstEntry = false;
+            }
+        }
+        if (classIdx != 0) {
+            if (!firstEntry) row.append(',');
+            row.append(classPos).append(' ').append(Utils.quote(jm.isBuggy()));
+        }
+        row.append('}');
     }
 
     public void csvToARFFTraining() throws Exception {
@@ -78,19 +360,18 @@ public class FileARFFGenerator {
 
     /* =============== helpers =============== */
 
-    private Instances loadCsv(String path) throws IOException {
-        CSVLoader loader = new CSVLoader();
-        loader.setSource(new File(path));
-        return loader.getDataSet();
+    private Instances loadCsv(String path) throws Exception {
+        return CompressedIO.loadInstances(new File(path));
     }
 
     private void saveArff(Instances data, String path) throws IOException {
-        File out = new File(path);
-        out.getParentFile().mkdirs();
-        ArffSaver saver = new ArffSaver();
-        saver.setInstances(data);
-        saver.setFile(out);
-        saver.writeBatch();
+        File out = CompressedIO.target(new File(path));
+        try (OutputStream os = CompressedIO.openOutput(out, false)) {
+            ArffSaver saver = new ArffSaver();
+            saver.setInstances(data);
+            saver.setDestination(os);
+            saver.writeBatch();
+        }
     }
 
     private Instances removeByNamesCaseInsensitive(Instances data, String... lowerNames) throws Exception {
@@ -3,11 +3,12 @@ package it.project.utils;
 
 import it.project.controllers.WekaClassifier;
 import it.project.entities.*;
+import weka.core.Instance;
 import weka.core.Instances;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -73,7 +74,7 @@ public class FileCSVGenerator {
     public void generateReleaseInfo(List<Release> releases) {
         String fileTitle = this.directoryPath + OTHERFILES + this.projName + "_releaseList.csv";
 
-        try (FileWriter fw = new FileWriter(fileTitle)) {
+        try (Writer fw = CompressedIO.openWriter(CompressedIO.target(new File(fileTitle)), false)) {
             fw.write(csvLine(new String[]{"Index","Version ID","Version Name","Date"}));
 
             for (int i = 0; i < releases.size(); i++) {
@@ -94,13 +95,11 @@ public class FileCSVGenerator {
 
 
     private String safeSignature(String sig) { return (sig == null || sig.isBlank()) ? "()" : sig; }
-    private String n(Integer x)  { return (x == null) ? "0" : String.valueOf(x); }
-    private String d(Double x)   { return (x == null) ? "0" : String.valueOf(x); }
 
     public void generateMethodList(List<Release> releases) {
         String fileTitle = this.directoryPath + OTHERFILES + this.projName + "_MethodList.csv";
 
-        try (FileWriter fw = new FileWriter(fileTitle)) {
+        try (Writer fw = CompressedIO.openWriter(CompressedIO.target(new File(fileTitle)), false)) {
             // Header: Release, path::name, MethodSignature
             fw.write(csvLine(new String[]{"Release","MethodFullName",METHOD_SIGNATURE}));
 
@@ -131,7 +130,7 @@ public class FileCSVGenerator {
     public void generateTicketSummary(List<Ticket> ticketList) {
         String fileTitle = this.directoryPath + OTHERFILES + this.projName + "_ticket_summary.csv";
 
-        try (FileWriter fw = new FileWriter(fileTitle)) {
+        try (Writer fw = CompressedIO.openWriter(CompressedIO.target(new File(fileTitle)), false)) {
             fw.write(csvLine(new String[]{
                     "Key","Injected Version","Opening Version","Fixed Version","Affected Version List"
             }));
@@ -160,6 +159,42 @@ public class FileCSVGenerator {
     }
 
 
+    /**
+     * Report dei ticket scartati da {@link TicketUtils#fixInconsistentTickets}, per fase di validazione
+     * (es. prima e dopo proportion): permette di verificare gli scarti senza rieseguire l'estrazione.
+     */
+    public void generateTicketRejectionReport(Map<String, Map<Ticket, TicketUtils.Rejection>> rejectedByStage) {
+        String fileTitle = this.directoryPath + OTHERFILES + this.projName + "_rejected_tickets.csv";
+
+        try (CsvWriter csv = new CsvWriter(CompressedIO.target(new File(fileTitle)))) {
+            csv.row("Stage", "Key", "Reason", "Creation Date", "Resolution Date",
+                    "Opening Version", "Fixed Version", "First Affected Version");
+
+            for (Map.Entry<String, Map<Ticket, TicketUtils.Rejection>> stage : rejectedByStage.entrySet()) {
+                for (Map.Entry<Ticket, TicketUtils.Rejection> e : stage.getValue().entrySet()) {
+                    Ticket ticket = e.getKey();
+                    csv.row(stage.getKey(),
+                            ticket.getTicketKey(),
+                            e.getValue().name(),
+                            String.valueOf(ticket.getCreationDate()),
+                            String.valueOf(ticket.getResolutionDate()),
+                            releaseName(ticket.getOpeningVersion()),
+                            releaseName(ticket.getFixedVersion()),
+                            ticket.getAffectedVersionsList().isEmpty()
+                                    ? "N/A" : ticket.getAffectedVersionsList().getFirst().getName());
+                }
+            }
+            Logger.getAnonymousLogger().log(Level.INFO, "Ticket rejection report generated: {0}", fileTitle);
+        } catch (IOException e) {
+            Logger.getAnonymousLogger().log(Level.SEVERE, "Error while generating ticket rejection report", e);
+        }
+    }
+
+    private static String releaseName(Release release) {
+        return (release != null) ? release.getName() : "N/A";
+    }
+
+
     /**
      * Salva un dataset Weka (Instances) in CSV dentro otherFiles.
      * Il file si chiamerà: {projName}_{baseName}.csv
@@ -170,23 +205,16 @@ public class FileCSVGenerator {
 
         ensureDir(this.directoryPath + OTHERFILES);
 
-        try (FileWriter fw = new FileWriter(fileTitle)) {
+        try (CsvWriter csv = new CsvWriter(CompressedIO.target(new File(fileTitle)))) {
             // Header: nomi attributi, in ordine
             int m = data.numAttributes();
-            String[] header = new String[m];
-            for (int j = 0; j < m; j++) {
-                header[j] = data.attribute(j).name();
-            }
-            fw.write(csvLine(header));
+            for (int j = 0; j < m; j++) csv.field(data.attribute(j).name());
+            csv.endRow();
 
             // Righe: rappresentazione testuale dei valori
             for (int i = 0; i < data.numInstances(); i++) {
-                String[] row = new String[m];
-                for (int j = 0; j < m; j++) {
-                    // toString(j) restituisce la stringa corretta anche per nominal/string/date; gestiamo missing
-                    row[j] = data.instance(i).isMissing(j) ? "" : data.instance(i).toString(j);
-                }
-                fw.write(csvLine(row));
+                writeInstanceValues(csv, data.instance(i));
+                csv.endRow();
             }
 
             Logger.getAnonymousLogger().log(Level.INFO,
@@ -200,37 +228,32 @@ public class FileCSVGenerator {
 
 
     private void generateDatasetFile(List<Release> releases, String filePath) {
-        try (FileWriter fw = new FileWriter(filePath)) {
-            fw.write(csvLine(new String[]{
-                    "Index","MethodName",METHOD_SIGNATURE,
+        try (CsvWriter csv = new CsvWriter(CompressedIO.target(new File(filePath)))) {
+            csv.row("Index","MethodName",METHOD_SIGNATURE,
                     "LOC","CyclomaticComplexity","Churn","LocAdded",
                     "fan-in","fan-out","NewcomerRisk","Auth","WeekendCommit",
-                    "nSmell","isBuggy"
-            }));
+                    "nSmell","isBuggy");
 
             for (Release release : releases) {
+                int releaseIndex = release.getIndex();
                 for (JavaClass jc : release.getJavaClassList()) {
+                    String classPrefix = jc.getPath() + "::";
                     for (JavaMethod jm : jc.getMethods()) {
-
-                        String methodName = jc.getPath() + "::" + jm.getName();
-                        String signature  = safeSignature(jm.getSignature());
-
-                        fw.write(csvLine(new String[]{
-                                String.valueOf(release.getIndex()),
-                                methodName,
-                                signature,
-                                n(jm.getLoc()),
-                                n(jm.getCyclomaticComplexity()),
-                                n(jm.getChurn()),
-                                n(jm.getLocAdded()),
-                                n(jm.getFanIn()),
-                                n(jm.getFanOut()),
-                                d(jm.getNewcomerRisk()),
-                                n(jm.getnAuth()),
-                                n(jm.getWeekendCommit()),
-                                n(jm.getnSmells()),
-                                (jm.isBuggy())
-                        }));
+                        csv.field(releaseIndex)
+                                .field(classPrefix + jm.getName())
+                                .field(safeSignature(jm.getSignature()))
+                                .field(jm.getLoc())
+                                .field(jm.getCyclomaticComplexity())
+                                .field(jm.getChurn())
+                                .field(jm.getLocAdded())
+                                .field(jm.getFanIn())
+                                .field(jm.getFanOut())
+                                .field(jm.getNewcomerRisk())
+                                .field(jm.getnAuth())
+                                .field(jm.getWeekendCommit())
+                                .field(jm.getnSmells())
+                                .field(jm.isBuggy());
+                        csv.endRow();
                     }
                 }
             }
@@ -256,24 +279,11 @@ public class FileCSVGenerator {
     }
 
 
-    public void generatePredictionsFile(List<String[]> rows,
-                                        String classifierName,
-                                        String featureSelection,
-                                        int iteration) {
-        String safeFS = toSafeSlug(featureSelection);
+    /** Sink delle predizioni per-istanza nella cartella prediction/, con gli output di WEKA_PREDICTIONS_OUTPUT. */
+    public PredictionSink openPredictionSink() throws IOException {
         String dir = this.directoryPath + PREDICTION;
-        String fileName = String.format("%s_predictions_iter_%02d_%s_%s.csv",
-                projName, iteration, toSafeSlug(classifierName), safeFS);
-
         ensureDir(dir);
-        File out = new File(dir, fileName);
-
-        try (FileWriter fw = new FileWriter(out)) {
-            for (String[] r : rows) fw.write(csvLine(r));
-            Logger.getAnonymousLogger().log(Level.INFO, "Scritto file di predizioni: {0}", out.getAbsolutePath());
-        } catch (IOException e) {
-            Logger.getAnonymousLogger().log(Level.SEVERE, "Errore scrittura predizioni: ", e);
-        }
+        return new PredictionSink(new File(dir), projName, PredictionSink.configured());
     }
 
     public void generateWekaResultFile(List<ClassifierResults> classifierResultsList, int iteration) {
@@ -290,13 +300,13 @@ public class FileCSVGenerator {
         ensureDir(dir);
         File out = new File(dir, fileName);
 
-        try (FileWriter fw = new FileWriter(out)) {
-            // Header con Accuracy + PofB20 / NPofB20
+        try (Writer fw = CompressedIO.openWriter(CompressedIO.target(out), false)) {
+            // Header con Accuracy + metriche effort-aware
             fw.write(csvLine(new String[]{
                     "classifier","feature_selection","iterations",
                     "avg_recall","avg_precision","avg_f1","avg_auc","avg_kappa","avg_accuracy",
                     "sum_tp","sum_fp","sum_tn","sum_fn",
-                    "avg_pofb20","avg_npofb20"
+                    "avg_pofb20","avg_npofb20","avg_popt","avg_acc20","avg_ifa"
             }));
 
             for (Map.Entry<String, List<ClassifierResults>> e : groups.entrySet()) {
@@ -323,6 +333,9 @@ public class FileCSVGenerator {
                 // Medie effort-aware (gestione null/NaN)
                 double avgPofB20  = averageNullable(list, ClassifierResults::getPofB20);
                 double avgNPofB20 = averageNullable(list, ClassifierResults::getNpofB20);
+                double avgPopt    = averageNullable(list, ClassifierResults::getPopt);
+                double avgAcc20   = averageNullable(list, ClassifierResults::getAcc20);
+                double avgIfa     = averageNullable(list, ClassifierResults::getIfa);
 
                 fw.write(csvLine(new String[]{
                         clf, featSel, String.valueOf(n),
@@ -330,7 +343,8 @@ public class FileCSVGenerator {
                         formatOrNaN(avgAuc), formatOrNaN(avgKap), formatOrNaN(avgAcc),
                         String.valueOf(sumTP), String.valueOf(sumFP),
                         String.valueOf(sumTN), String.valueOf(sumFN),
-                        formatOrNaN(avgPofB20), formatOrNaN(avgNPofB20)
+                        formatOrNaN(avgPofB20), formatOrNaN(avgNPofB20),
+                        formatOrNaN(avgPopt), formatOrNaN(avgAcc20), formatOrNaN(avgIfa)
                 }));
             }
 
@@ -385,22 +399,24 @@ public class FileCSVGenerator {
         ensureDir(dirPerFS);
 
         String safeFS = toSafeSlug(featureSelection);
-        File perFsFile = new File(dirPerFS,
-                String.format("%s_fs_iter_%2d_%s.csv", projName, iteration, safeFS));
+        File perFsFile = CompressedIO.target(new File(dirPerFS,
+                String.format("%s_fs_iter_%2d_%s.csv", projName, iteration, safeFS)));
 
-        // file cumulativo
+        // file cumulativo (in append: con gzip/zstd ogni scrittura aggiunge un frame concatenato)
         String cumulativePath = this.directoryPath + RESULT +
                 String.format("%s_features_selected_all.csv", projName);
-        File cumulativeFile = new File(cumulativePath);
+        File cumulativeFile = CompressedIO.target(new File(cumulativePath));
+        // va deciso prima di aprire lo stream: un writer compresso scrive subito l'header del frame
+        boolean writeCumulativeHeader = !cumulativeFile.exists() || cumulativeFile.length() == 0;
 
-        try (FileWriter fwPer = new FileWriter(perFsFile);
-             FileWriter fwAll = new FileWriter(cumulativeFile, /*append*/ true)) {
+        try (Writer fwPer = CompressedIO.openWriter(perFsFile, false);
+             Writer fwAll = CompressedIO.openWriter(cumulativeFile, /*append*/ true)) {
 
             // header per-file
             fwPer.write(csvLine(new String[]{"rank", ATTRIBUTE_NAME,attributeIndex}));
 
             // se il cumulativo non esiste (o è vuoto), scrivi header
-            if (!cumulativeFile.exists() || cumulativeFile.length() == 0) {
+            if (writeCumulativeHeader) {
                 fwAll.write(csvLine(new String[]{
                         "iteration","feature_selection","rank", ATTRIBUTE_NAME,attributeIndex
                 }));
@@ -441,7 +457,7 @@ public class FileCSVGenerator {
         }
     }
 
-    private String csvLine(String[] cols) {
+    String csvLine(String[] cols) {
         String joined = Arrays.stream(cols)
                 .map(this::csvEscapeStrict)
                 .collect(Collectors.joining(CSV_SEP));
@@ -454,6 +470,22 @@ public class FileCSVGenerator {
         return "\"" + x + "\"";
     }
 
+    /** Valori di un'istanza come li stampa Weka; i numerici interi vengono scritti senza passare da stringa. */
+    private static void writeInstanceValues(CsvWriter csv, Instance inst) throws IOException {
+        for (int j = 0; j < inst.numAttributes(); j++) {
+            if (inst.isMissing(j)) {
+                csv.field((String) null);
+                continue;
+            }
+            double v = inst.value(j);
+            if (inst.attribute(j).isNumeric() && v == Math.rint(v) && Math.abs(v) < 1e12) {
+                csv.field((long) v);
+            } else {
+                csv.field(inst.toString(j));
+            }
+        }
+    }
+
 
     private void ensureDir(String dirPath) {
         try {
@@ -467,7 +499,7 @@ public class FileCSVGenerator {
     }
 
 
-    private String toSafeSlug(String s) {
+    static String toSafeSlug(String s) {
         if (s == null || s.isBlank()) return "base";
         return s.toLowerCase().replaceAll("[^a-z0-9]+", "-");
     }
@@ -476,7 +508,7 @@ public class FileCSVGenerator {
         String fileTitle = this.directoryPath + OTHERFILES +
                 this.projName + "_featuresCorrelationWithBuggyness.csv";
 
-        try (FileWriter fw = new FileWriter(fileTitle)) {
+        try (Writer fw = CompressedIO.openWriter(CompressedIO.target(new File(fileTitle)), false)) {
             // Intestazione
             fw.write(csvLine(new String[]{"rank", ATTRIBUTE_NAME,ATTRIBUTE_INDEX,"score"}));
 
@@ -516,22 +548,18 @@ public class FileCSVGenerator {
         String fileTitle = this.directoryPath + OTHERFILES + this.projName + "_" + safe + ".csv";
         ensureDir(this.directoryPath + OTHERFILES);
 
-        try (FileWriter fw = new FileWriter(fileTitle)) {
+        try (CsvWriter csv = new CsvWriter(CompressedIO.target(new File(fileTitle)))) {
             // Header
             int m = data.numAttributes();
-            String[] header = new String[m + 1];
-            for (int j = 0; j < m; j++) header[j] = data.attribute(j).name();
-            header[m] = (predCol == null || predCol.isBlank()) ? "isBuggy_pred" : predCol;
-            fw.write(csvLine(header));
+            for (int j = 0; j < m; j++) csv.field(data.attribute(j).name());
+            csv.field((predCol == null || predCol.isBlank()) ? "isBuggy_pred" : predCol);
+            csv.endRow();
 
             // Righe
             for (int i = 0; i < data.numInstances(); i++) {
-                String[] row = new String[m + 1];
-                for (int j = 0; j < m; j++) {
-                    row[j] = data.instance(i).isMissing(j) ? "" : data.instance(i).toString(j);
-                }
-                row[m] = predLabels[i] == null ? "" : predLabels[i];
-                fw.write(csvLine(row));
+                writeInstanceValues(csv, data.instance(i));
+                csv.field(predLabels[i]);
+                csv.endRow();
             }
 
             Logger.getAnonymousLogger().log(Level.INFO,
@@ -0,0 +1,265 @@
+package it.project.utils;
+
+import com.google.gson.stream.JsonReader;
+import it.project.entities.JiraIssue;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Accesso REST a Jira. L'URL base è configurabile (JIRA_BASE_URL), per cui la stessa estrazione
+ * può puntare a issues.apache.org o a uno stand-in locale come {@link JiraStandIn}.
+ *
+ * La ricerca scarica la prima pagina per conoscere il totale, poi le restanti in parallelo con al
+ * massimo JIRA_MAX_IN_FLIGHT richieste contemporanee. Errori di rete, 429 e 5xx vengono ritentati
+ * fino a JIRA_MAX_RETRIES volte con backoff esponenziale (o il Retry-After del server).
+ */
+public class JiraClient {
+    private static final Logger LOG = Logger.getLogger(JiraClient.class.getName());
+
+    public static final String DEFAULT_BASE_URL = "https://issues.apache.org/jira";
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 4;
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final long DEFAULT_BACKOFF_MILLIS = 500;
+
+    private final String baseUrl;
+    private final int pageSize;
+    private final int maxInFlight;
+    private final int maxRetries;
+    private final long backoffMillis;
+
+    public JiraClient() {
+        this(ConfigManager.getString("JIRA_BASE_URL", DEFAULT_BASE_URL));
+    }
+
+    public JiraClient(String baseUrl) {
+        this(baseUrl, DEFAULT_PAGE_SIZE,
+                ConfigManager.getInt("JIRA_MAX_IN_FLIGHT", DEFAULT_MAX_IN_FLIGHT),
+                ConfigManager.getInt("JIRA_MAX_RETRIES", DEFAULT_MAX_RETRIES),
+                DEFAULT_BACKOFF_MILLIS);
+    }
+
+    public JiraClient(String baseUrl, int pageSize, int maxInFlight, int maxRetries, long backoffMillis) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.pageSize = pageSize;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.backoffMillis = backoffMillis;
+    }
+
+    /** Risposta a una GET condizionale: {@code json} è null se il server ha risposto 304 Not Modified. */
+    public static final class Response {
+        private final JSONObject json;
+        private final String etag;
+
+        Response(JSONObject json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+
+        public boolean isNotModified() {
+            return json == null;
+        }
+
+        public JSONObject getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    /** Progetto con le sue versioni; con {@code etag} non nullo la richiesta è condizionale (If-None-Match). */
+    public Response getProject(String projectKey, String etag) throws IOException {
+        String url = baseUrl + "/rest/api/2/project/" + projectKey;
+        return withRetry(url, () -> {
+            HttpURLConnection conn = open(url, etag);
+            try {
+                if (conn.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    return new Response(null, etag);
+                }
+                checkOk(conn, url);
+                try (Reader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8)) {
+                    return new Response(new JSONObject(new JSONTokener(reader)), conn.getHeaderField("ETag"));
+                }
+            } finally {
+                conn.disconnect();
+            }
+        });
+    }
+
+    /**
+     * Tutte le issue che soddisfano la JQL, nell'ordine restituito dal server. Il passo tra le pagine è la
+     * dimensione della prima: Jira può applicare a maxResults un limite più basso di quello richiesto.
+     */
+    public List<JiraIssue> searchIssues(String jql, String fields) throws IOException {
+        String baseQuery = baseUrl + "/rest/api/2/search?jql=" + URLEncoder.encode(jql, StandardCharsets.UTF_8)
+                + "&fields=" + fields + "&maxResults=" + pageSize + "&startAt=";
+
+        JiraJson.Page first = fetchPage(baseQuery, 0);
+        int total = first.getTotal();
+        List<JiraIssue> result = new ArrayList<>(Math.max(total, 0));
+        result.addAll(first.getIssues());
+        if (result.size() >= total) return result;
+
+        int stride = first.getIssues().size();
+        if (stride == 0) throw new IOException("Prima pagina /search vuota con total=" + total + ": " + jql);
+        int pages = (total + stride - 1) / stride;
+        if (pages > 1) fetchPages(baseQuery, stride, pages, result);
+
+        // pagina più corta del passo o issue aggiunte nel frattempo: si prosegue dal prefisso già scaricato
+        while (result.size() < total) {
+            List<JiraIssue> more = fetchPage(baseQuery, result.size()).getIssues();
+            if (more.isEmpty()) {
+                throw new IOException("Scaricate " + result.size() + " issue su " + total + " per la JQL: " + jql);
+            }
+            result.addAll(more);
+        }
+        return result;
+    }
+
+    /**
+     * Pagine da 1 a pages-1 in parallelo, accodate a {@code result} in ordine. Ci si ferma dopo una pagina
+     * più corta del passo, così {@code result} resta un prefisso contiguo dei risultati.
+     */
+    private void fetchPages(String baseQuery, int stride, int pages, List<JiraIssue> result) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(maxInFlight, pages - 1));
+        try {
+            List<Future<JiraJson.Page>> futures = new ArrayList<>(pages - 1);
+            for (int p = 1; p < pages; p++) {
+                int startAt = p * stride;
+                futures.add(pool.submit(() -> fetchPage(baseQuery, startAt)));
+            }
+            for (Future<JiraJson.Page> f : futures) {
+                List<JiraIssue> issues = f.get().getIssues();
+                result.addAll(issues);
+                if (issues.size() < stride) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download delle issue interrotto", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException("Errore nel download delle issue", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /* ================= helpers ================= */
+
+    private JiraJson.Page fetchPage(String baseQuery, int startAt) throws IOException {
+        String url = baseQuery + startAt;
+        return withRetry(url, () -> {
+            HttpURLConnection conn = open(url, null);
+            try {
+                checkOk(conn, url);
+                try (InputStream is = conn.getInputStream();
+                     JsonReader reader = new JsonReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                    return JiraJson.readPage(reader);
+                }
+            } finally {
+                conn.disconnect();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T run() throws IOException;
+    }
+
+    /** Errore ritentabile: rete, 429 Too Many Requests, 5xx. Porta l'eventuale Retry-After in ms. */
+    private static final class TransientHttpException extends IOException {
+        private static final long serialVersionUID = 1L;
+        private final long retryAfterMillis;
+
+        TransientHttpException(String message, long retryAfterMillis) {
+            super(message);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    /** Errore definitivo (4xx diverso da 429): non ha senso ritentare. */
+    private static final class PermanentHttpException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        PermanentHttpException(String message) {
+            super(message);
+        }
+    }
+
+    private <T> T withRetry(String url, Call<T> call) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return call.run();
+            } catch (PermanentHttpException e) {
+                throw e;
+            } catch (IOException e) {
+                if (attempt >= maxRetries) throw e;
+                long wait = (e instanceof TransientHttpException t && t.retryAfterMillis > 0)
+                        ? t.retryAfterMillis
+                        : backoffMillis << attempt;
+                int nextAttempt = attempt + 2;
+                LOG.log(Level.WARNING, () -> "Richiesta Jira fallita (" + e.getMessage() + "), tentativo "
+                        + nextAttempt + "/" + (maxRetries + 1) + " tra " + wait + " ms: " + url);
+                sleep(wait);
+            }
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Attesa per retry interrotta", e);
+        }
+    }
+
+    private static HttpURLConnection open(String url, String etag) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        conn.setRequestProperty("Accept", "application/json");
+        if (etag != null) conn.setRequestProperty("If-None-Match", etag);
+        return conn;
+    }
+
+    private static void checkOk(HttpURLConnection conn, String url) throws IOException {
+        int status = conn.getResponseCode();
+        if (status == HttpURLConnection.HTTP_OK) return;
+
+        String message = "Jira ha risposto " + status + " per " + url;
+        if (status == 429 || status >= 500) {
+            throw new TransientHttpException(message, retryAfterMillis(conn.getHeaderField("Retry-After")));
+        }
+        throw new PermanentHttpException(message);
+    }
+
+    private static long retryAfterMillis(String header) {
+        if (header == null) return 0;
+        try {
+            return Long.parseLong(header.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            return 0; // formato HTTP-date: si usa il backoff standard
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package it.project.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import it.project.entities.JiraIssue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lettura/scrittura in streaming (Gson {@link JsonReader}/{@link JsonWriter}) delle issue Jira:
+ * le pagine di /search vengono trasformate in {@link JiraIssue} token per token, senza
+ * materializzare il documento né costruire l'albero org.json.
+ */
+public final class JiraJson {
+    private static final String FIELDS = "fields";
+    private static final String VERSIONS = "versions";
+
+    private JiraJson() {}
+
+    /** Una pagina di /search: il totale dichiarato dal server e le issue contenute. */
+    public static final class Page {
+        private final int total;
+        private final List<JiraIssue> issues;
+
+        Page(int total, List<JiraIssue> issues) {
+            this.total = total;
+            this.issues = issues;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public List<JiraIssue> getIssues() {
+            return issues;
+        }
+    }
+
+    /* ================= lettura ================= */
+
+    public static Page readPage(JsonReader in) throws IOException {
+        int total = -1;
+        List<JiraIssue> issues = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "total" -> total = in.nextInt();
+                case "issues" -> issues = readIssues(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (total < 0) throw new IOException("Risposta /search senza campo total");
+        return new Page(total, issues);
+    }
+
+    public static List<JiraIssue> readIssues(JsonReader in) throws IOException {
+        List<JiraIssue> issues = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) issues.add(readIssue(in));
+        in.endArray();
+        return issues;
+    }
+
+    private static JiraIssue readIssue(JsonReader in) throws IOException {
+        String key = null;
+        String created = null;
+        String resolutionDate = null;
+        String updated = null;
+        List<String> versions = new ArrayList<>();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if ("key".equals(name)) {
+                key = nullableString(in);
+            } else if (FIELDS.equals(name)) {
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "created" -> created = nullableString(in);
+                        case "resolutiondate" -> resolutionDate = nullableString(in);
+                        case "updated" -> updated = nullableString(in);
+                        case VERSIONS -> versions = readVersionNames(in);
+                        default -> in.skipValue();
+                    }
+                }
+                in.endObject();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new JiraIssue(key, created, resolutionDate, updated, versions);
+    }
+
+    private static List<String> readVersionNames(JsonReader in) throws IOException {
+        List<String> names = new ArrayList<>();
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return names;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("name".equals(in.nextName())) names.add(nullableString(in));
+                else in.skipValue();
+            }
+            in.endObject();
+        }
+        in.endArray();
+        return names;
+    }
+
+    private static String nullableString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    /* ================= scrittura ================= */
+
+    /** Scrive le issue nella stessa forma della risposta Jira (key + fields). */
+    public static void writeIssues(JsonWriter out, List<JiraIssue> issues) throws IOException {
+        out.beginArray();
+        for (JiraIssue issue : issues) writeIssue(out, issue);
+        out.endArray();
+    }
+
+    public static void writePage(JsonWriter out, int startAt, int maxResults, int total, List<JiraIssue> issues) throws IOException {
+        out.beginObject();
+        out.name("startAt").value(startAt);
+        out.name("maxResults").value(maxResults);
+        out.name("total").value(total);
+        out.name("issues");
+        writeIssues(out, issues);
+        out.endObject();
+    }
+
+    private static void writeIssue(JsonWriter out, JiraIssue issue) throws IOException {
+        out.beginObject();
+        out.name("key").value(issue.getKey());
+        out.name(FIELDS).beginObject();
+        out.name("created").value(issue.getCreated());
+        out.name("resolutiondate").value(issue.getResolutionDate());
+        out.name("updated").value(issue.getUpdated());
+        out.name(VERSIONS).beginArray();
+        for (String v : issue.getVersionNames()) out.beginObject().name("name").value(v).endObject();
+        out.endArray();
+        out.endObject();
+        out.endObject();
+    }
+}
@@ -0,0 +1,187 @@
+package it.project.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import it.project.entities.JiraIssue;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Snapshot locale delle risposte Jira usate dall'estrazione, per run riproducibili e offline.
+ *
+ * Per ogni progetto, in JIRA_SNAPSHOT_DIR (default src/main/resources/jira/):
+ *   - &lt;KEY&gt;_project.json   risposta di /project/&lt;KEY&gt; (versioni)
+ *   - &lt;KEY&gt;_issues.json    array delle issue di bug risolte
+ *   - &lt;KEY&gt;.properties     ETag del progetto, data "updated" massima delle issue, data di fetch
+ * I JSON seguono OUTPUT_COMPRESSION (vedi {@link CompressedIO}).
+ */
+public class JiraSnapshotStore {
+    public static final String DEFAULT_DIRECTORY = "src/main/resources/jira";
+
+    private static final String ETAG = "project.etag";
+    private static final String UPDATED_MAX = "issues.updatedMax";
+    private static final String FETCHED_AT = "fetchedAt";
+
+    private final Path directory;
+
+    public JiraSnapshotStore() {
+        this(Path.of(ConfigManager.getString("JIRA_SNAPSHOT_DIR", DEFAULT_DIRECTORY)));
+    }
+
+    public JiraSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /* ================= progetto / versioni ================= */
+
+    public boolean hasProject(String key) {
+        return CompressedIO.existing(projectFile(key)).isFile();
+    }
+
+    public JSONObject readProject(String key) throws IOException {
+        return read(projectFile(key));
+    }
+
+    public void writeProject(String key, JSONObject project, String etag) throws IOException {
+        write(projectFile(key), project);
+        Properties meta = meta(key);
+        if (etag != null) meta.setProperty(ETAG, etag);
+        else meta.remove(ETAG);
+        saveMeta(key, meta);
+    }
+
+    public String projectEtag(String key) throws IOException {
+        return meta(key).getProperty(ETAG);
+    }
+
+    /* ================= issue ================= */
+
+    public boolean hasIssues(String key) {
+        return CompressedIO.existing(issuesFile(key)).isFile();
+    }
+
+    public List<JiraIssue> readIssues(String key) throws IOException {
+        File f = CompressedIO.existing(issuesFile(key));
+        if (!f.isFile()) throw new IOException("Snapshot Jira mancante: " + issuesFile(key).getPath());
+        try (JsonReader in = new JsonReader(CompressedIO.openReader(f))) {
+            return JiraJson.readIssues(in);
+        }
+    }
+
+    /** Salva le issue e il valore massimo del campo "updated", punto di partenza del prossimo refresh. */
+    public void writeIssues(String key, List<JiraIssue> issues) throws IOException {
+        File plain = issuesFile(key);
+        try (JsonWriter out = new JsonWriter(CompressedIO.openWriter(CompressedIO.target(plain), false))) {
+            JiraJson.writeIssues(out, issues);
+        }
+
+        String updatedMax = null;
+        for (JiraIssue issue : issues) {
+            String updated = issue.getUpdated();
+            if (updated != null && (updatedMax == null || updated.compareTo(updatedMax) > 0)) updatedMax = updated;
+        }
+        Properties meta = meta(key);
+        if (updatedMax != null) meta.setProperty(UPDATED_MAX, updatedMax);
+        saveMeta(key, meta);
+    }
+
+    /** Istante dell'ultimo salvataggio della snapshot, null se non noto. */
+    public Instant fetchedAt(String key) throws IOException {
+        String value = meta(key).getProperty(FETCHED_AT);
+        return value == null ? null : Instant.parse(value);
+    }
+
+    /** Campo "updated" più recente tra le issue salvate (formato Jira), null se non noto. */
+    public String issuesUpdatedMax(String key) throws IOException {
+        return meta(key).getProperty(UPDATED_MAX);
+    }
+
+    /**
+     * Impronta SHA-256 del contenuto (decompresso) di versioni e issue salvate, indipendente dal
+     * codec usato su disco; null se la snapshot del progetto è incompleta.
+     */
+    public String fingerprint(String key) throws IOException {
+        File project = CompressedIO.existing(projectFile(key));
+        File issues = CompressedIO.existing(issuesFile(key));
+        if (!project.isFile() || !issues.isFile()) return null;
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponibile", e);
+        }
+        byte[] buf = new byte[1 << 16];
+        for (File f : new File[]{project, issues}) {
+            try (InputStream in = CompressedIO.openInput(f)) {
+                int n;
+                while ((n = in.read(buf)) != -1) digest.update(buf, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /* ================= helpers ================= */
+
+    private File projectFile(String key) {
+        return directory.resolve(key + "_project.json").toFile();
+    }
+
+    private File issuesFile(String key) {
+        return directory.resolve(key + "_issues.json").toFile();
+    }
+
+    private File metaFile(String key) {
+        return directory.resolve(key + ".properties").toFile();
+    }
+
+    private Properties meta(String key) throws IOException {
+        Properties meta = new Properties();
+        File f = metaFile(key);
+        if (f.isFile()) {
+            try (Reader r = CompressedIO.openReader(f)) {
+                meta.load(r);
+            }
+        }
+        return meta;
+    }
+
+    private void saveMeta(String key, Properties meta) throws IOException {
+        meta.setProperty(FETCHED_AT, Instant.now().toString());
+        try (Writer w = CompressedIO.openWriter(metaFile(key), false)) {
+            meta.store(w, "Jira snapshot " + key);
+        }
+    }
+
+    private static JSONObject read(File plain) throws IOException {
+        File f = CompressedIO.existing(plain);
+        if (!f.isFile()) throw new IOException("Snapshot Jira mancante: " + plain.getPath());
+        try (Reader r = CompressedIO.openReader(f)) {
+            return new JSONObject(new JSONTokener(r));
+        }
+    }
+
+    /** openWriter (non in append) cancella l'eventuale variante scritta con un altro codec. */
+    private static void write(File plain, JSONObject content) throws IOException {
+        try (Writer w = CompressedIO.openWriter(CompressedIO.target(plain), false)) {
+            content.write(w);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package it.project.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpServer;
+import it.project.entities.JiraIssue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in HTTP locale di Jira che serve le snapshot di {@link JiraSnapshotStore} sugli stessi
+ * endpoint REST usati dall'estrazione. Basta impostare JIRA_BASE_URL=http://localhost:&lt;porta&gt;
+ * per far girare la pipeline su nodi senza accesso a issues.apache.org.
+ *
+ * Endpoint:
+ *   GET /rest/api/2/project/&lt;KEY&gt;    con ETag / If-None-Match
+ *   GET /rest/api/2/search?jql=...     paginazione startAt/maxResults; della JQL si usano solo
+ *                                      project=&lt;KEY&gt; e l'eventuale updated&gt;="yyyy/MM/dd HH:mm"
+ */
+public class JiraStandIn {
+    private static final Logger LOG = Logger.getLogger(JiraStandIn.class.getName());
+
+    private static final String PROJECT_PATH = "/rest/api/2/project/";
+    private static final String SEARCH_PATH = "/rest/api/2/search";
+    private static final Pattern JQL_PROJECT = Pattern.compile("project\\s*=\\s*\"?([A-Za-z0-9_-]+)\"?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern JQL_UPDATED = Pattern.compile("updated\\s*>=\\s*\"([^\"]+)\"", Pattern.CASE_INSENSITIVE);
+    private static final DateTimeFormatter JQL_DATE = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+
+    private final JiraSnapshotStore store;
+    private final AtomicInteger transientFailures = new AtomicInteger();
+    private volatile int maxResultsCap = Integer.MAX_VALUE;
+    private HttpServer server;
+
+    public JiraStandIn(JiraSnapshotStore store) {
+        this.store = store;
+    }
+
+    /** Avvia il server sulla porta indicata (0 = porta libera qualsiasi) e restituisce l'URL base. */
+    public String start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "jira-stand-in");
+            t.setDaemon(true);
+            return t;
+        }));
+        server.createContext(PROJECT_PATH, this::handleProject);
+        server.createContext(SEARCH_PATH, this::handleSearch);
+        server.start();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        LOG.log(Level.INFO, "Jira stand-in in ascolto su {0} (snapshot: {1})", new Object[]{baseUrl, store.getDirectory()});
+        return baseUrl;
+    }
+
+    /** Le prossime {@code n} richieste a /search rispondono 503, per provare retry e backoff del client. */
+    public void failNextSearches(int n) {
+        transientFailures.set(n);
+    }
+
+    /** Limite lato server a maxResults, come quello di Jira: le pagine possono essere più corte della richiesta. */
+    public void capMaxResults(int cap) {
+        maxResultsCap = cap;
+    }
+
+    public void stop() {
+        if (server != null) server.stop(0);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 8090;
+        new JiraStandIn(new JiraSnapshotStore()).start(port);
+    }
+
+    /* ================= handler ================= */
+
+    private void handleProject(HttpExchange ex) throws IOException {
+        String key = ex.getRequestURI().getPath().substring(PROJECT_PATH.length());
+        if (!store.hasProject(key)) {
+            send(ex, 404, "{\"errorMessages\":[\"No project could be found with key '" + key + "'.\"]}", null);
+            return;
+        }
+        String body = store.readProject(key).toString();
+        String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+        if (etag.equals(ex.getRequestHeaders().getFirst("If-None-Match"))) {
+            send(ex, 304, null, etag);
+            return;
+        }
+        send(ex, 200, body, etag);
+    }
+
+    private void handleSearch(HttpExchange ex) throws IOException {
+        Map<String, String> query = parseQuery(ex.getRequestURI().getRawQuery());
+        String jql = query.getOrDefault("jql", "");
+        Matcher mp = JQL_PROJECT.matcher(jql);
+        if (!mp.find() || !store.hasIssues(mp.group(1))) {
+            send(ex, 400, "{\"errorMessages\":[\"Snapshot non disponibile per la JQL: " + jql.replace("\"", "'") + "\"]}", null);
+            return;
+        }
+
+        if (transientFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            send(ex, 503, "{\"errorMessages\":[\"Service Unavailable (simulato)\"]}", null);
+            return;
+        }
+
+        List<JiraIssue> issues = store.readIssues(mp.group(1));
+        Matcher mu = JQL_UPDATED.matcher(jql);
+        if (mu.find()) {
+            LocalDateTime since = LocalDateTime.parse(mu.group(1), JQL_DATE);
+            issues = issues.stream()
+                    .filter(i -> updatedNotBefore(i, since))
+                    .toList();
+        }
+
+        int startAt = Integer.parseInt(query.getOrDefault("startAt", "0"));
+        int maxResults = Math.min(Integer.parseInt(query.getOrDefault("maxResults", "50")), maxResultsCap);
+        int from = Math.min(startAt, issues.size());
+        int to = Math.min(from + maxResults, issues.size());
+
+        StringWriter page = new StringWriter();
+        try (JsonWriter out = new JsonWriter(page)) {
+            JiraJson.writePage(out, startAt, maxResults, issues.size(), issues.subList(from, to));
+        }
+        send(ex, 200, page.toString(), null);
+    }
+
+    private static boolean updatedNotBefore(JiraIssue issue, LocalDateTime since) {
+        String updated = issue.getUpdated();
+        return updated == null || !LocalDateTime.parse(updated.substring(0, 16)).isBefore(since);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange ex, int status, String body, String etag) throws IOException {
+        if (etag != null) ex.getResponseHeaders().set("ETag", etag);
+        if (body == null) {
+            ex.sendResponseHeaders(status, -1);
+            ex.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
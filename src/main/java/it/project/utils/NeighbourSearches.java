@@ -0,0 +1,100 @@
+package it.project.utils;
+
+import weka.classifiers.lazy.IBk;
+import weka.core.DistanceFunction;
+import weka.core.Instance;
+import weka.core.neighboursearch.BallTree;
+import weka.core.neighboursearch.CoverTree;
+import weka.core.neighboursearch.KDTree;
+import weka.core.neighboursearch.LinearNNSearch;
+import weka.core.neighboursearch.NearestNeighbourSearch;
+
+import java.util.Locale;
+
+/**
+ * Strutture di ricerca nearest-neighbour per IBk: linear (default di Weka, O(n) per query), kdtree,
+ * balltree, covertree.
+ *
+ * La normalizzazione delle feature è la stessa per tutte: la struttura riceve la funzione di distanza già
+ * configurata nell'IBk (attributi, normalizzazione), e la politica dei range è scelta esplicitamente:
+ *   - INCREMENTAL: come Weka, ogni istanza predetta allarga i range min/max della normalizzazione, quindi la
+ *                  predizione dipende dalle istanze di test già viste;
+ *   - TRAINING:    range fissati dal training set in buildClassifier, predizioni indipendenti dall'ordine.
+ * A parità di politica kdtree e balltree restituiscono le stesse distribuzioni di linear; covertree no
+ * (gestione dei pareggi diversa). I tempi per iterazione sono in NeighbourSearchReport (src/jmh).
+ */
+public final class NeighbourSearches {
+
+    public enum Normalization { INCREMENTAL, TRAINING }
+
+    private NeighbourSearches() {}
+
+    public static Normalization normalization(String name) {
+        return Normalization.valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /** Sostituisce la ricerca di {@code ibk} mantenendone la funzione di distanza. */
+    public static void configure(IBk ibk, String structure, Normalization normalization) {
+        DistanceFunction distance = ibk.getNearestNeighbourSearchAlgorithm().getDistanceFunction();
+        NearestNeighbourSearch search = create(structure, normalization);
+        try {
+            search.setDistanceFunction(distance);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("La ricerca " + structure + " non supporta la distanza "
+                    + distance.getClass().getName(), e);
+        }
+        ibk.setNearestNeighbourSearchAlgorithm(search);
+    }
+
+    public static NearestNeighbourSearch create(String structure, Normalization normalization) {
+        boolean training = normalization == Normalization.TRAINING;
+        return switch (structure.trim().toLowerCase(Locale.ROOT)) {
+            case "linear" -> training ? new TrainingRangesLinear() : new LinearNNSearch();
+            case "kdtree" -> training ? new TrainingRangesKDTree() : new KDTree();
+            case "balltree" -> training ? new TrainingRangesBallTree() : new BallTree();
+            case "covertree" -> training ? new TrainingRangesCoverTree() : new CoverTree();
+            default -> throw new IllegalArgumentException("Ricerca nearest-neighbour sconosciuta: " + structure);
+        };
+    }
+
+    /*
+     * Varianti con range fissati dal training: IBk chiama addInstanceInfo prima di ogni query solo per
+     * aggiornare i range della distanza, qui ignorato. update (IBk incrementale) resta quello di Weka.
+     */
+
+    public static final class TrainingRangesLinear extends LinearNNSearch {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void addInstanceInfo(Instance ins) {
+            // range fissati dal training set
+        }
+    }
+
+    public static final class TrainingRangesKDTree extends KDTree {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void addInstanceInfo(Instance instance) {
+            // range fissati dal training set
+        }
+    }
+
+    public static final class TrainingRangesBallTree extends BallTree {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void addInstanceInfo(Instance ins) {
+            // range fissati dal training set
+        }
+    }
+
+    public static final class TrainingRangesCoverTree extends CoverTree {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void addInstanceInfo(Instance ins) {
+            // range fissati dal training set
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package it.project.utils;
+
+import weka.core.Attribute;
+import weka.core.Instances;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Scrittura in streaming delle predizioni per-istanza della valutazione Weka.
+ *
+ * Ogni cella (iterazione, classificatore, feature selection) apre un {@link Cell} e vi scrive le righe man
+ * mano che le produce, con valori primitivi (nessuna riga String[] intermedia). Gli output, scelti con
+ * WEKA_PREDICTIONS_OUTPUT (lista separata da virgole, "none" per nessuno):
+ *   - cells:    un CSV per cella in prediction/, come prima;
+ *   - csv:      un unico &lt;progetto&gt;_predictions_all.csv con tutte le celle;
+ *   - columnar: lo stesso contenuto in formato {@link ColumnarDataset} (&lt;progetto&gt;_predictions_all.bin),
+ *               leggibile direttamente come Instances.
+ * Le celle girano in parallelo: il CSV per cella è scritto dal worker, mentre per i due file consolidati la
+ * cella tiene le sue righe in colonne primitive finché chi raccoglie la griglia non chiama {@link #publish},
+ * nell'ordine della griglia; così i file consolidati non dipendono da WEKA_PARALLELISM né dai tempi dei
+ * thread. Il formato colonnare è scritto alla chiusura del sink.
+ */
+public final class PredictionSink implements Closeable {
+    private static final Logger LOG = Logger.getLogger(PredictionSink.class.getName());
+
+    public enum Output { CELLS, CSV, COLUMNAR }
+
+    private static final String[] HEADER = {
+            "iteration", "classifier", "feature_selection",
+            "instance_id", "actual", "predicted", "p_yes", "p_no"
+    };
+
+    private final File directory;
+    private final String projName;
+    private final Set<Output> outputs;
+    private final CsvWriter consolidated;    // null se l'output csv non è attivo
+    private final ColumnBuffer columnar;     // null se l'output columnar non è attivo
+
+    PredictionSink(File directory, String projName, Set<Output> outputs) throws IOException {
+        this.directory = directory;
+        this.projName = projName;
+        this.outputs = outputs.isEmpty() ? EnumSet.noneOf(Output.class) : EnumSet.copyOf(outputs);
+        if (this.outputs.contains(Output.CSV)) {
+            consolidated = new CsvWriter(CompressedIO.target(new File(directory, projName + "_predictions_all.csv")));
+            consolidated.row(HEADER);
+        } else {
+            consolidated = null;
+        }
+        columnar = this.outputs.contains(Output.COLUMNAR) ? new ColumnBuffer() : null;
+    }
+
+    /** Output configurati in WEKA_PREDICTIONS_OUTPUT (default: cells). */
+    public static Set<Output> configured() {
+        String value = ConfigManager.getString("WEKA_PREDICTIONS_OUTPUT", "cells").trim();
+        Set<Output> outputs = EnumSet.noneOf(Output.class);
+        if (value.isEmpty() || value.equalsIgnoreCase("none")) return outputs;
+        for (String name : value.split(",")) {
+            try {
+                outputs.add(Output.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("WEKA_PREDICTIONS_OUTPUT = \"" + value + "\" non valido in "
+                        + "configuration.properties: valori ammessi none o una lista di cells, csv, columnar", e);
+            }
+        }
+        return outputs;
+    }
+
+    public Cell open(int iteration, String classifier, String featureSelection) throws IOException {
+        return new Cell(iteration, classifier, featureSelection);
+    }
+
+    /**
+     * Accoda ai file consolidati le righe di una cella chiusa. Va chiamato da un solo thread, nell'ordine in
+     * cui le celle devono comparire; dopo la chiamata la cella non tiene più le sue righe.
+     */
+    public void publish(Cell cell) throws IOException {
+        for (int r = 0; r < cell.rows; r++) {
+            if (consolidated != null) {
+                cell.write(consolidated, cell.idColumn[r], cell.actualColumn[r], cell.predictedColumn[r], cell.yesColumn[r], cell.noColumn[r]);
+            }
+            if (columnar != null) {
+                columnar.add(cell.iteration, cell.classifier, cell.featureSelection, cell.idColumn[r],
+                        cell.actualColumn[r], cell.predictedColumn[r], cell.yesColumn[r], cell.noColumn[r]);
+            }
+        }
+        cell.release();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (consolidated != null) {
+            consolidated.close();
+            LOG.log(Level.INFO, "Scritto file di predizioni consolidato: {0}",
+                    CompressedIO.target(new File(directory, projName + "_predictions_all.csv")).getAbsolutePath());
+        }
+        if (columnar != null) {
+            File out = new File(directory, projName + "_predictions_all" + ColumnarDataset.EXTENSION);
+            columnar.write(out, projName + "_predictions");
+            LOG.log(Level.INFO, "Scritto file di predizioni colonnare: {0}", out.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Predizioni di una cella. Da usare in un solo thread e chiudere sempre (try-with-resources); le righe per
+     * i file consolidati restano nella cella fino a {@link #publish}.
+     */
+    public final class Cell implements Closeable {
+        private final int iteration;
+        private final String classifier;
+        private final String featureSelection;
+        private final File cellFile;
+        private final CsvWriter cellCsv;
+        private final boolean buffered;
+        private String[] idColumn;
+        private int[] actualColumn;
+        private int[] predictedColumn;
+        private double[] yesColumn;
+        private double[] noColumn;
+        private int rows;
+
+        private Cell(int iteration, String classifier, String featureSelection) throws IOException {
+            this.iteration = iteration;
+            this.classifier = classifier;
+            this.featureSelection = featureSelection;
+
+            buffered = consolidated != null || columnar != null;
+            if (buffered) {
+                idColumn = new String[64];
+                actualColumn = new int[64];
+                predictedColumn = new int[64];
+                yesColumn = new double[64];
+                noColumn = new double[64];
+            }
+            if (outputs.contains(Output.CELLS)) {
+                cellFile = CompressedIO.target(new File(directory, String.format("%s_predictions_iter_%02d_%s_%s.csv",
+                        projName, iteration, FileCSVGenerator.toSafeSlug(classifier),
+                        FileCSVGenerator.toSafeSlug(featureSelection))));
+                cellCsv = new CsvWriter(cellFile);
+                cellCsv.row(HEADER);
+            } else {
+                cellFile = null;
+                cellCsv = null;
+            }
+        }
+
+        public void row(String instanceId, int actual, int predicted, double pYes, double pNo) throws IOException {
+            if (cellCsv != null) write(cellCsv, instanceId, actual, predicted, pYes, pNo);
+            if (buffered) buffer(instanceId, actual, predicted, pYes, pNo);
+        }
+
+        private void buffer(String instanceId, int actual, int predicted, double pYes, double pNo) {
+            if (rows == idColumn.length) {
+                idColumn = Arrays.copyOf(idColumn, rows * 2);
+                actualColumn = Arrays.copyOf(actualColumn, rows * 2);
+                predictedColumn = Arrays.copyOf(predictedColumn, rows * 2);
+                yesColumn = Arrays.copyOf(yesColumn, rows * 2);
+                noColumn = Arrays.copyOf(noColumn, rows * 2);
+            }
+            idColumn[rows] = instanceId;
+            actualColumn[rows] = actual;
+            predictedColumn[rows] = predicted;
+            yesColumn[rows] = pYes;
+            noColumn[rows] = pNo;
+            rows++;
+        }
+
+        private void release() {
+            idColumn = null;
+            actualColumn = null;
+            predictedColumn = null;
+            yesColumn = null;
+            noColumn = null;
+            rows = 0;
+        }
+
+        private void write(CsvWriter csv, String instanceId, int actual, int predicted,
+                           double pYes, double pNo) throws IOException {
+            csv.field(iteration).field(classifier).field(featureSelection).field(instanceId)
+                    .field(actual).field(predicted).field(pYes).field(pNo);
+            csv.endRow();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (cellCsv != null) {
+                cellCsv.close();
+                LOG.log(Level.INFO, "Scritto file di predizioni: {0}", cellFile.getAbsolutePath());
+            }
+        }
+    }
+
+    /** Colonne del file colonnare accumulate come primitivi; i testi come codici di dizionario. */
+    private static final class ColumnBuffer {
+        private final Map<String, Integer> classifiers = new LinkedHashMap<>();
+        private final Map<String, Integer> selections = new LinkedHashMap<>();
+        private final Map<String, Integer> ids = new LinkedHashMap<>();
+        private double[][] columns = new double[HEADER.length][1024];
+        private int rows;
+
+        void add(int iteration, String classifier, String featureSelection, String instanceId,
+                 int actual, int predicted, double pYes, double pNo) {
+            if (rows == columns[0].length) {
+                for (int c = 0; c < columns.length; c++) columns[c] = Arrays.copyOf(columns[c], rows * 2);
+            }
+            columns[0][rows] = iteration;
+            columns[1][rows] = code(classifiers, classifier);
+            columns[2][rows] = code(selections, featureSelection);
+            columns[3][rows] = code(ids, instanceId);
+            columns[4][rows] = actual;
+            columns[5][rows] = predicted;
+            columns[6][rows] = pYes;
+            columns[7][rows] = pNo;
+            rows++;
+        }
+
+        private static int code(Map<String, Integer> dictionary, String value) {
+            return dictionary.computeIfAbsent(value, v -> dictionary.size());
+        }
+
+        void write(File out, String relation) throws IOException {
+            ArrayList<Attribute> attributes = new ArrayList<>();
+            attributes.add(new Attribute(HEADER[0]));
+            attributes.add(new Attribute(HEADER[1], new ArrayList<>(classifiers.keySet())));
+            attributes.add(new Attribute(HEADER[2], new ArrayList<>(selections.keySet())));
+            Attribute id = new Attribute(HEADER[3], (List<String>) null);
+            for (String v : ids.keySet()) id.addStringValue(v);
+            attributes.add(id);
+            for (int c = 4; c < HEADER.length; c++) attributes.add(new Attribute(HEADER[c]));
+
+            double[][] exact = new double[columns.length][];
+            for (int c = 0; c < columns.length; c++) exact[c] = Arrays.copyOf(columns[c], rows);
+            ColumnarDataset.write(out, new Instances(relation, attributes, 0), exact, new int[]{0});
+        }
+    }
+}
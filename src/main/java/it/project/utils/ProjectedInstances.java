@@ -0,0 +1,217 @@
+package it.project.utils;
+
+import weka.core.AbstractInstance;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Dataset che espone un sottoinsieme di colonne di un altro dataset senza copiarne i valori.
+ *
+ * Ogni riga è una vista ({@link Row}) sull'istanza originale più la mappa colonna → colonna sorgente,
+ * condivisa da tutte le righe. Le viste sono copy-on-write come DenseInstance: la prima scrittura
+ * (setValue, setClassMissing, replaceMissingValues...) materializza i valori nella riga, senza toccare
+ * l'originale. copy() restituisce un'altra vista, quindi anche le copie che classificatori ed Evaluation
+ * fanno internamente ({@code new Instances(data)}) restano senza valori duplicati.
+ *
+ * L'header è passato dal chiamante (es. l'output format di Remove) così il dataset è identico, nome
+ * della relazione compreso, a quello prodotto dal filtro corrispondente.
+ */
+public final class ProjectedInstances extends Instances {
+    private static final long serialVersionUID = 1L;
+
+    private ProjectedInstances(Instances header, int capacity) {
+        super(header, capacity);
+    }
+
+    /**
+     * Proietta {@code source} sulle colonne {@code columns} (indici della sorgente, nell'ordine di
+     * {@code header}), con l'header dato. Le viste su viste puntano direttamente alla riga di partenza.
+     */
+    public static Instances project(Instances source, Instances header, int[] columns) {
+        if (header.numAttributes() != columns.length) {
+            throw new IllegalArgumentException("Header con " + header.numAttributes()
+                    + " attributi per " + columns.length + " colonne");
+        }
+        ProjectedInstances out = new ProjectedInstances(header, source.numInstances());
+        Map<int[], int[]> composed = new IdentityHashMap<>();
+        for (int i = 0; i < source.numInstances(); i++) {
+            Instance row = source.instance(i);
+            Row view;
+            if (row instanceof Row parent && parent.origin != null) {
+                int[] mapping = composed.computeIfAbsent(parent.origin.columns, c -> compose(c, columns));
+                view = new Row(parent.origin.row, mapping, parent.weight());
+            } else {
+                view = new Row(row, columns, row.weight());
+            }
+            view.setDataset(out);
+            out.m_Instances.add(view);
+        }
+        return out;
+    }
+
+    /** Vista su tutte le colonne: contenitore indipendente (riordinabile) senza copiare i valori. */
+    public static Instances view(Instances source) {
+        int[] all = new int[source.numAttributes()];
+        for (int a = 0; a < all.length; a++) all[a] = a;
+        return project(source, new Instances(source, 0), all);
+    }
+
+    private static int[] compose(int[] inner, int[] outer) {
+        int[] mapping = new int[outer.length];
+        for (int a = 0; a < outer.length; a++) mapping[a] = inner[outer[a]];
+        return mapping;
+    }
+
+    /** Riga-vista: valori letti dalla sorgente finché non viene scritta. */
+    static final class Row extends AbstractInstance {
+        private static final long serialVersionUID = 1L;
+
+        /** Riga sorgente e mappa delle colonne, condivise tra la vista e le sue copie. */
+        private record Origin(Instance row, int[] columns) implements Serializable {}
+
+        // Un solo campo oltre a quelli di AbstractInstance: RandomTree copia le istanze a ogni split e la
+        // vista deve occupare quanto una DenseInstance. Dopo la prima scrittura i valori stanno in
+        // m_AttValues e origin è null.
+        private Origin origin;
+
+        Row(Instance row, int[] columns, double weight) {
+            this.origin = new Origin(row, columns);
+            this.m_Weight = weight;
+        }
+
+        private Row(Origin origin, double[] values, double weight) {
+            this.origin = origin;
+            this.m_AttValues = values;
+            this.m_Weight = weight;
+        }
+
+        private double[] own() {
+            if (origin != null) {
+                m_AttValues = toDoubleArray();
+                origin = null;
+            }
+            return m_AttValues;
+        }
+
+        @Override
+        public double value(int attIndex) {
+            return origin == null ? m_AttValues[attIndex] : origin.row.value(origin.columns[attIndex]);
+        }
+
+        @Override
+        public double valueSparse(int indexOfIndex) {
+            return value(indexOfIndex);
+        }
+
+        @Override
+        public int index(int position) {
+            return position;
+        }
+
+        @Override
+        public int numAttributes() {
+            return origin == null ? m_AttValues.length : origin.columns.length;
+        }
+
+        @Override
+        public int numValues() {
+            return numAttributes();
+        }
+
+        @Override
+        public double[] toDoubleArray() {
+            if (origin == null) return m_AttValues.clone();
+            double[] out = new double[origin.columns.length];
+            for (int a = 0; a < out.length; a++) out[a] = origin.row.value(origin.columns[a]);
+            return out;
+        }
+
+        @Override
+        public Object copy() {
+            Row copy = origin == null
+                    ? new Row(null, m_AttValues.clone(), m_Weight)
+                    : new Row(origin, null, m_Weight);
+            copy.m_Dataset = m_Dataset;
+            return copy;
+        }
+
+        @Override
+        public Instance copy(double[] newValues) {
+            DenseInstance copy = new DenseInstance(m_Weight, newValues);
+            copy.setDataset(m_Dataset);
+            return copy;
+        }
+
+        @Override
+        public Instance mergeInstance(Instance inst) {
+            return new DenseInstance(m_Weight, toDoubleArray()).mergeInstance(inst);
+        }
+
+        @Override
+        public void replaceMissingValues(double[] array) {
+            if (array == null || array.length != numAttributes()) {
+                throw new IllegalArgumentException("Unequal number of attributes!");
+            }
+            double[] own = own();
+            for (int a = 0; a < own.length; a++) {
+                if (Utils.isMissingValue(own[a])) own[a] = array[a];
+            }
+        }
+
+        @Override
+        public void setValue(int attIndex, double value) {
+            own()[attIndex] = value;
+        }
+
+        @Override
+        public void setValueSparse(int indexOfIndex, double value) {
+            own()[indexOfIndex] = value;
+        }
+
+        @Override
+        public String toStringNoWeight() {
+            return dense().toStringNoWeight();
+        }
+
+        @Override
+        public String toStringNoWeight(int afterDecimalPoint) {
+            return dense().toStringNoWeight(afterDecimalPoint);
+        }
+
+        @Override
+        protected void forceDeleteAttributeAt(int position) {
+            double[] own = own();
+            double[] out = new double[own.length - 1];
+            System.arraycopy(own, 0, out, 0, position);
+            System.arraycopy(own, position + 1, out, position, own.length - position - 1);
+            m_AttValues = out;
+        }
+
+        @Override
+        protected void forceInsertAttributeAt(int position) {
+            double[] own = own();
+            double[] out = new double[own.length + 1];
+            System.arraycopy(own, 0, out, 0, position);
+            out[position] = Utils.missingValue();
+            System.arraycopy(own, position, out, position + 1, own.length - position);
+            m_AttValues = out;
+        }
+
+        @Override
+        public String getRevision() {
+            return "1";
+        }
+
+        private DenseInstance dense() {
+            DenseInstance dense = new DenseInstance(m_Weight, toDoubleArray());
+            dense.setDataset(m_Dataset);
+            return dense;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package it.project.utils;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Stima incrementale di P = (FV-IV)/(FV-OV) sui ticket già visti, aggiornata in O(1) per ticket.
+ *
+ * Strategie (PROPORTION_STRATEGY in configuration.properties):
+ *   INCREMENT   media di tutti i P visti, con somma corrente (stesso risultato del ricalcolo completo);
+ *   WINDOW      media degli ultimi PROPORTION_WINDOW valori (ring buffer);
+ *   MEDIAN      mediana degli ultimi PROPORTION_WINDOW valori, meno sensibile ai ticket anomali;
+ *   COLD_START  ignora i ticket del progetto e usa sempre il P cold start.
+ * Finché non si hanno almeno {@code threshold} ticket con IV si usa comunque il cold start.
+ */
+public final class ProportionEstimator {
+    public enum Strategy { INCREMENT, WINDOW, MEDIAN, COLD_START }
+
+    private static final int DEFAULT_WINDOW = 50;
+
+    private final Strategy strategy;
+    private final int threshold;
+    private final float coldStart;
+    private final float[] ring;
+
+    private float sum;
+    private int count;
+
+    public ProportionEstimator(Strategy strategy, int window, int threshold, float coldStart) {
+        this.strategy = strategy;
+        this.threshold = threshold;
+        this.coldStart = coldStart;
+        boolean windowed = strategy == Strategy.WINDOW || strategy == Strategy.MEDIAN;
+        this.ring = windowed ? new float[Math.max(1, window)] : null;
+    }
+
+    /** Estimatore configurato da PROPORTION_STRATEGY / PROPORTION_WINDOW. */
+    public static ProportionEstimator configured(int threshold, float coldStart) {
+        Strategy strategy = Strategy.valueOf(ConfigManager.getString("PROPORTION_STRATEGY", "increment")
+                .toUpperCase(Locale.ROOT).replace('-', '_'));
+        return new ProportionEstimator(strategy, ConfigManager.getInt("PROPORTION_WINDOW", DEFAULT_WINDOW),
+                threshold, coldStart);
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /** Registra il P di un ticket con IV noto. */
+    public void add(float p) {
+        if (ring != null) ring[count % ring.length] = p;
+        sum += p;
+        count++;
+    }
+
+    /** P da usare per il prossimo ticket senza IV. */
+    public float estimate() {
+        if (strategy == Strategy.COLD_START || count < threshold) return coldStart;
+        return switch (strategy) {
+            case WINDOW -> windowMean();
+            case MEDIAN -> windowMedian();
+            default -> sum / count;
+        };
+    }
+
+    /* La finestra ha dimensione costante: ricalcolarla evita la deriva di una somma mobile in float */
+    private float windowMean() {
+        int n = Math.min(count, ring.length);
+        float s = 0;
+        for (int i = 0; i < n; i++) s += ring[i];
+        return s / n;
+    }
+
+    private float windowMedian() {
+        int n = Math.min(count, ring.length);
+        float[] sorted = Arrays.copyOf(ring, n);
+        Arrays.sort(sorted);
+        return (n % 2 == 1) ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+}
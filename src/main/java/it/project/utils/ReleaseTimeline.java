@@ -0,0 +1,71 @@
+package it.project.utils;
+
+import it.project.entities.Release;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indice delle release di un progetto per la risoluzione data → release e nome → release.
+ *
+ * Le date sono tenute in un array ordinato di epoch-second (UTC, senza conversione di fuso:
+ * serve solo l'ordinamento), interrogato con ricerca binaria in O(log R); i nomi in una mappa hash.
+ * L'indice fotografa la lista al momento della costruzione: se la lista viene filtrata o
+ * riordinata va ricostruito (O(R)).
+ */
+public final class ReleaseTimeline {
+    private final Release[] releases;
+    private final long[] epochSeconds;
+    private final Map<String, List<Release>> byName;
+
+    public ReleaseTimeline(List<Release> releaseList) {
+        this.releases = releaseList.toArray(new Release[0]);
+        Arrays.sort(releases, Comparator.comparing(Release::getDate));   // stabile: già ordinate nel caso normale
+        this.epochSeconds = new long[releases.length];
+        this.byName = HashMap.newHashMap(releases.length);
+        for (int i = 0; i < releases.length; i++) {
+            epochSeconds[i] = toEpochSecond(releases[i].getDate());
+            byName.computeIfAbsent(releases[i].getName(), k -> new ArrayList<>(1)).add(releases[i]);
+        }
+    }
+
+    /** Prima release con data non precedente a {@code dateTime} (OV/FV di un ticket, release di un commit); null se oltre l'ultima. */
+    public Release atOrAfter(LocalDateTime dateTime) {
+        int i = lowerBound(toEpochSecond(dateTime));
+        return (i < releases.length) ? releases[i] : null;
+    }
+
+    /** Release corrispondenti ai nomi, nell'ordine dei nomi; i nomi sconosciuti vengono ignorati. */
+    public List<Release> byNames(List<String> names) {
+        List<Release> result = new ArrayList<>(names.size());
+        for (String name : names) {
+            List<Release> matches = byName.get(name);
+            if (matches != null) result.addAll(matches);
+        }
+        return result;
+    }
+
+    /* ================= ricerca binaria ================= */
+
+    /** Primo indice con epochSeconds[i] >= t. */
+    private int lowerBound(long t) {
+        int lo = 0;
+        int hi = epochSeconds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochSeconds[mid] < t) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,339 @@
+package it.project.utils;
+
+import com.google.gson.stream.JsonWriter;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Strumentazione della pipeline: tempi e risorse per fase (e per release/iterazione), contatori
+ * di lavoro svolto e hit rate delle cache, esportati a fine run come report JSON + CSV.
+ *
+ * Uso tipico:
+ * <pre>
+ *   try (var _ = RunMetrics.stage("git.analyzeRelease", release.getName())) { ... }
+ *   RunMetrics.count("git.filesParsed", 1);
+ *   RunMetrics.hit("weka.trainingStore");   // oppure miss(...)
+ * </pre>
+ * Per ogni fase si registrano wall time, CPU time e byte allocati del thread che la esegue
+ * (il lavoro dei thread di un pool è contato nelle fasi aperte dai task stessi). Le fasi annidate
+ * sono misurate in modo inclusivo.
+ *
+ * Configurazione: METRICS_ENABLED (default true), METRICS_JFR (default false) per emettere anche
+ * eventi JFR "it.project.Stage", visibili in una registrazione avviata con -XX:StartFlightRecording.
+ */
+public final class RunMetrics {
+    private static final Logger LOG = Logger.getLogger(RunMetrics.class.getName());
+
+    private static final boolean ENABLED = ConfigManager.getBoolean("METRICS_ENABLED", true);
+    private static final boolean JFR = ConfigManager.getBoolean("METRICS_JFR", false);
+    private static final String HIT = ".hit";
+    private static final String MISS = ".miss";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private static final Map<String, StageStats> STAGES = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Instant STARTED_AT = Instant.now();
+    private static final long STARTED_NANOS = System.nanoTime();
+
+    private static final Timer NOOP = new Timer(null, null);
+
+    private RunMetrics() {}
+
+    /* ================= API ================= */
+
+    public static Timer stage(String name) {
+        return stage(name, null);
+    }
+
+    /** Apre una fase; {@code scope} distingue le esecuzioni della stessa fase (release, iterazione...). */
+    public static Timer stage(String name, String scope) {
+        return ENABLED ? new Timer(name, scope) : NOOP;
+    }
+
+    public static void count(String counter, long delta) {
+        if (ENABLED) COUNTERS.computeIfAbsent(counter, k -> new LongAdder()).add(delta);
+    }
+
+    public static void hit(String cache) {
+        count(cache + HIT, 1);
+    }
+
+    public static void miss(String cache) {
+        count(cache + MISS, 1);
+    }
+
+    /** Fase in corso: chiuderla (try-with-resources) ne registra tempi e allocazioni. */
+    public static final class Timer implements AutoCloseable {
+        private final String name;
+        private final String scope;
+        private final long wallStart;
+        private final long cpuStart;
+        private final long allocStart;
+        private final StageEvent event;
+
+        private Timer(String name, String scope) {
+            this.name = name;
+            this.scope = scope;
+            if (name == null) {
+                wallStart = cpuStart = allocStart = 0;
+                event = null;
+                return;
+            }
+            this.event = JFR ? new StageEvent() : null;
+            if (event != null) event.begin();
+            this.cpuStart = cpuNow();
+            this.allocStart = allocatedNow();
+            this.wallStart = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (name == null) return;
+            long wall = System.nanoTime() - wallStart;
+            long cpu = cpuNow() - cpuStart;
+            long alloc = allocatedNow() - allocStart;
+
+            STAGES.computeIfAbsent(key(name, scope), k -> new StageStats(name, scope, wallStart)).add(wall, cpu, alloc);
+
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.stage = name;
+                    event.scope = scope;
+                    event.cpuTime = cpu;
+                    event.allocated = alloc;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    /* ================= report ================= */
+
+    /**
+     * Scrive &lt;PROJ&gt;_run_report.json (riepilogo run, fasi, contatori, cache, GC) e
+     * &lt;PROJ&gt;_run_report.csv (una riga per fase/scope) nella cartella indicata.
+     */
+    public static void writeReport(Path directory, String projectName) throws IOException {
+        if (!ENABLED) return;
+        Files.createDirectories(directory);
+        List<StageStats> stages = sortedStages();
+
+        File json = directory.resolve(projectName + "_run_report.json").toFile();
+        try (Writer w = CompressedIO.openWriter(json, false); JsonWriter out = new JsonWriter(w)) {
+            out.setIndent("  ");
+            out.beginObject();
+            out.name("project").value(projectName);
+            out.name("startedAt").value(STARTED_AT.toString());
+            out.name("wallMillis").value(millis(System.nanoTime() - STARTED_NANOS));
+            out.name("processCpuMillis").value(millis(processCpuNanos()));
+            out.name("peakHeapBytes").value(peakHeapBytes());
+            writeGc(out);
+            writeStages(out, stages);
+            writeCounters(out);
+            out.endObject();
+        }
+
+        File csvFile = directory.resolve(projectName + "_run_report.csv").toFile();
+        try (CsvWriter csv = new CsvWriter(csvFile)) {
+            csv.row("Stage", "Scope", "Calls", "Wall ms", "CPU ms", "Allocated MB", "Max wall ms");
+            for (StageStats s : stages) {
+                csv.field(s.name).field(s.scope == null ? "" : s.scope).field(s.calls.sum())
+                        .field(millis(s.wall.sum())).field(millis(s.cpu.sum()))
+                        .field(s.allocated.sum() / (1024.0 * 1024.0)).field(millis(s.maxWall))
+                        .endRow();
+            }
+        }
+        LOG.log(Level.INFO, "Run report scritto in {0}", json.getPath());
+    }
+
+    /** Variante che non interrompe la pipeline: un errore nel report viene solo loggato. */
+    public static void writeReportSafe(Path directory, String projectName) {
+        try {
+            writeReport(directory, projectName);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Impossibile scrivere il run report", e);
+        }
+    }
+
+    private static void writeStages(JsonWriter out, List<StageStats> stages) throws IOException {
+        out.name("stages").beginArray();
+        for (StageStats s : stages) {
+            out.beginObject();
+            out.name("stage").value(s.name);
+            if (s.scope != null) out.name("scope").value(s.scope);
+            out.name("calls").value(s.calls.sum());
+            out.name("wallMillis").value(millis(s.wall.sum()));
+            out.name("cpuMillis").value(millis(s.cpu.sum()));
+            out.name("allocatedBytes").value(s.allocated.sum());
+            out.name("maxWallMillis").value(millis(s.maxWall));
+            out.endObject();
+        }
+        out.endArray();
+    }
+
+    private static void writeCounters(JsonWriter out) throws IOException {
+        Map<String, Long> counters = new TreeMap<>();
+        COUNTERS.forEach((k, v) -> counters.put(k, v.sum()));
+
+        out.name("counters").beginObject();
+        for (Map.Entry<String, Long> e : counters.entrySet()) {
+            if (!e.getKey().endsWith(HIT) && !e.getKey().endsWith(MISS)) out.name(e.getKey()).value(e.getValue());
+        }
+        out.endObject();
+
+        Map<String, long[]> caches = new TreeMap<>();
+        for (Map.Entry<String, Long> e : counters.entrySet()) {
+            String k = e.getKey();
+            if (k.endsWith(HIT)) caches.computeIfAbsent(k.substring(0, k.length() - HIT.length()), c -> new long[2])[0] = e.getValue();
+            else if (k.endsWith(MISS)) caches.computeIfAbsent(k.substring(0, k.length() - MISS.length()), c -> new long[2])[1] = e.getValue();
+        }
+        out.name("caches").beginObject();
+        for (Map.Entry<String, long[]> e : caches.entrySet()) {
+            long hits = e.getValue()[0];
+            long misses = e.getValue()[1];
+            out.name(e.getKey()).beginObject();
+            out.name("hits").value(hits);
+            out.name("misses").value(misses);
+            out.name("hitRate").value((hits + misses == 0) ? 0.0 : (double) hits / (hits + misses));
+            out.endObject();
+        }
+        out.endObject();
+    }
+
+    private static void writeGc(JsonWriter out) throws IOException {
+        out.name("gc").beginObject();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            out.name(gc.getName()).beginObject();
+            out.name("collections").value(gc.getCollectionCount());
+            out.name("millis").value(gc.getCollectionTime());
+            out.endObject();
+        }
+        out.endObject();
+    }
+
+    /* ================= helpers ================= */
+
+    /** Fasi nell'ordine in cui sono state aperte la prima volta, cioè l'ordine della pipeline. */
+    private static List<StageStats> sortedStages() {
+        List<StageStats> stages = new ArrayList<>(STAGES.values());
+        stages.sort((a, b) -> Long.compare(a.firstSeen, b.firstSeen));
+        return stages;
+    }
+
+    private static String key(String name, String scope) {
+        return (scope == null) ? name : name + '\u0000' + scope;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static long cpuNow() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long allocatedNow() {
+        return (ALLOCATION != null) ? ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().threadId()) : 0;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+
+    private static long processCpuNanos() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    /** Aggregato di una fase/scope; i contatori sono thread-safe per fasi aperte in parallelo. */
+    private static final class StageStats {
+        private final String name;
+        private final String scope;
+        private final long firstSeen;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder wall = new LongAdder();
+        private final LongAdder cpu = new LongAdder();
+        private final LongAdder allocated = new LongAdder();
+        private volatile long maxWall;
+
+        StageStats(String name, String scope, long firstSeen) {
+            this.name = name;
+            this.scope = scope;
+            this.firstSeen = firstSeen;
+        }
+
+        void add(long wallNanos, long cpuNanos, long allocatedBytes) {
+            calls.increment();
+            wall.add(wallNanos);
+            cpu.add(cpuNanos);
+            allocated.add(allocatedBytes);
+            synchronized (this) {
+                if (wallNanos > maxWall) maxWall = wallNanos;
+            }
+        }
+    }
+
+    /** Evento JFR di fine fase (emesso solo con METRICS_JFR=true e una registrazione attiva). */
+    @Name("it.project.Stage")
+    @Label("Pipeline Stage")
+    @Category("it.project")
+    @Description("Fase della pipeline di estrazione/valutazione")
+    static final class StageEvent extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Scope")
+        String scope;
+
+        @Label("CPU Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long cpuTime;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+}
@@ -4,9 +4,9 @@ package it.project.utils;
 import weka.core.Attribute;
 import weka.core.Instance;
 import weka.core.Instances;
-import weka.core.converters.ConverterUtils.DataSource;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.*;
@@ -39,7 +39,10 @@ public class SpearmanCorrelation {
             Path outDir   = baseDir.resolve(Paths.get(projectName.toLowerCase(), "otherFiles"));
             Files.createDirectories(outDir);
 
-            List<Integer> iters = detectIterations(trainDir);
+            // Training set cumulativi (base + label) se presenti, altrimenti gli ARFF completi
+            TrainingSetStore store = new TrainingSetStore(projectName);
+            List<Integer> storeIters = store.iterations();
+            List<Integer> iters = storeIters.isEmpty() ? detectIterations(trainDir) : storeIters;
             if (iters.isEmpty()) {
                 if (LOG.isLoggable(Level.WARNING)) {
                     LOG.warning("Nessun ARFF di training trovato in " + trainDir);
@@ -52,8 +55,13 @@ public class SpearmanCorrelation {
             Map<String, Stats> ftAgg = new HashMap<>(); // feature↔target
 
             for (int iter : iters) {
-                Path trainArff = trainDir.resolve(projectName + "_training_iter_" + iter + ".arff");
-                processIteration(trainArff, ffAgg, ftAgg);
+                Instances data;
+                if (!storeIters.isEmpty()) {
+                    data = store.load(iter);
+                } else {
+                    data = loadArff(trainDir.resolve(projectName + "_training_iter_" + iter + ".arff").toString());
+                }
+                processIteration(data, ffAgg, ftAgg);
             }
 
             // Output finali
@@ -71,8 +79,7 @@ public class SpearmanCorrelation {
 
 // ===================== Helpers estratti =====================
 
-    private void processIteration(Path trainArff, Map<Pair, Stats> ffAgg, Map<String, Stats> ftAgg) throws Exception {
-        Instances data = loadArff(trainArff.toString());
+    private void processIteration(Instances data, Map<Pair, Stats> ffAgg, Map<String, Stats> ftAgg) {
         data.setClassIndex(data.numAttributes() - 1);
 
         List<Integer> feats = numericFeatureIndices(data);
@@ -146,8 +153,7 @@ public class SpearmanCorrelation {
     /* ================= helpers: IO & scansione ================= */
 
     private static Instances loadArff(String path) throws Exception {
-        DataSource ds = new DataSource(path);
-        Instances data = ds.getDataSet();
+        Instances data = CompressedIO.loadInstances(new File(path));
         if (data.classIndex() < 0) data.setClassIndex(data.numAttributes() - 1);
         return data;
     }
@@ -155,11 +161,11 @@ public class SpearmanCorrelation {
     private static List<Integer> detectIterations(Path trainArffDir) throws IOException {
         List<Integer> iters = new ArrayList<>();
         if (!Files.exists(trainArffDir)) return iters;
-        Pattern p = Pattern.compile(".*_training_iter_(\\d+)\\.arff");
-        try (DirectoryStream<Path> ds = Files.newDirectoryStream(trainArffDir, "*.arff")) {
+        Pattern p = Pattern.compile(".*_training_iter_(\\d+)\\.arff(\\.gz|\\.zst)?");
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(trainArffDir, "*.arff*")) {
             for (Path f : ds) {
                 var m = p.matcher(f.getFileName().toString());
-                if (m.matches()) iters.add(Integer.parseInt(m.group(1)));
+                if (m.matches() && !iters.contains(Integer.parseInt(m.group(1)))) iters.add(Integer.parseInt(m.group(1)));
             }
         }
         Collections.sort(iters);
@@ -218,7 +224,7 @@ public class SpearmanCorrelation {
 
 
     /** ranks con gestione dei pari (average ranks). */
-    private static double[] ranks(double[] x) {
+    static double[] ranks(double[] x) {
         int n = x.length;
         Integer[] ord = new Integer[n];
         for (int i = 0; i < n; i++) ord[i] = i;
@@ -236,7 +242,7 @@ public class SpearmanCorrelation {
     }
 
     /** Pearson tra due vettori (stessa lunghezza). */
-    private static double pearson(double[] a, double[] b) {
+    static double pearson(double[] a, double[] b) {
         int n = a.length;
         double ma = 0;
         double mb = 0;
@@ -0,0 +1,530 @@
+package it.project.utils;
+
+import it.project.entities.JiraIssue;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Generatore deterministico di un progetto sintetico per test di scala offline: a parità di
+ * parametri (e seed) produce byte per byte gli stessi artefatti, commit SHA compresi.
+ *
+ *   - repository JGit in tmp/&lt;progetto&gt; (dove lo cerca RepoFactory) con N release di commit,
+ *     M file Java che crescono nel tempo, churn e autori con distribuzione a hotspot;
+ *   - snapshot Jira (versioni + bug) in &lt;jiraDir&gt;, con i ticket citati nei messaggi dei commit di fix
+ *     e una quota di ticket senza affected versions per esercitare proportion;
+ *   - report PMD-like pmd-reports/pmd-&lt;release&gt;.xml nel working tree, sugli stessi file e range di
+ *     righe dei metodi, con più smell dove c'è più churn.
+ *
+ * Uso: java -cp ... it.project.utils.SyntheticProject [chiave=valore ...]
+ *      es. project=SYNTH releases=40 files=5000 commitsPerRelease=200 seed=7
+ * Poi in configuration.properties: PROJECT_NAME=&lt;progetto&gt;, JIRA_MODE=offline,
+ * JIRA_SNAPSHOT_DIR=&lt;jiraDir&gt; e PMD_PATH vuoto (si usano i report generati).
+ */
+public class SyntheticProject {
+    private static final Logger LOG = Logger.getLogger(SyntheticProject.class.getName());
+
+    private static final String SOURCE_ROOT = "src/main/java/org/synth/";
+    private static final String BRANCH = "master";
+    private static final DateTimeFormatter JIRA_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'+0000'");
+    private static final int FILES_PER_PACKAGE = 25;
+    private static final long DAY = 86_400L;
+
+    /** Parametri del generatore; ogni campo ha un default e si sovrascrive con argomenti chiave=valore. */
+    public static final class Spec {
+        private String project = "SYNTH";
+        private int releases = 20;
+        private int files = 500;
+        private int methodsPerFile = 8;
+        private int commitsPerRelease = 50;
+        private int filesPerCommit = 3;
+        private int churnLines = 6;
+        private double bugFixRatio = 0.25;
+        private double missingAvRatio = 0.4;
+        private double smellsPerFile = 2.0;
+        private double hotspotSkew = 2.0;
+        private int releaseIntervalDays = 60;
+        private LocalDate start = LocalDate.of(2012, 1, 1);
+        private long seed = 42L;
+        private Path repoDir;
+        private Path jiraDir = Path.of("tmp", "synthetic", "jira");
+        private boolean coldStart = true;
+        private boolean overwrite = false;
+
+        public static Spec fromArgs(String... args) {
+            Properties p = new Properties();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq <= 0) throw new IllegalArgumentException("Argomento non valido (atteso chiave=valore): " + arg);
+                p.setProperty(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+            }
+            Spec s = new Spec();
+            s.project = p.getProperty("project", s.project).toUpperCase(Locale.ROOT);
+            s.releases = Integer.parseInt(p.getProperty("releases", String.valueOf(s.releases)));
+            s.files = Integer.parseInt(p.getProperty("files", String.valueOf(s.files)));
+            s.methodsPerFile = Integer.parseInt(p.getProperty("methodsPerFile", String.valueOf(s.methodsPerFile)));
+            s.commitsPerRelease = Integer.parseInt(p.getProperty("commitsPerRelease", String.valueOf(s.commitsPerRelease)));
+            s.filesPerCommit = Integer.parseInt(p.getProperty("filesPerCommit", String.valueOf(s.filesPerCommit)));
+            s.churnLines = Integer.parseInt(p.getProperty("churnLines", String.valueOf(s.churnLines)));
+            s.bugFixRatio = Double.parseDouble(p.getProperty("bugFixRatio", String.valueOf(s.bugFixRatio)));
+            s.missingAvRatio = Double.parseDouble(p.getProperty("missingAvRatio", String.valueOf(s.missingAvRatio)));
+            s.smellsPerFile = Double.parseDouble(p.getProperty("smellsPerFile", String.valueOf(s.smellsPerFile)));
+            s.hotspotSkew = Double.parseDouble(p.getProperty("hotspotSkew", String.valueOf(s.hotspotSkew)));
+            s.releaseIntervalDays = Integer.parseInt(p.getProperty("releaseIntervalDays", String.valueOf(s.releaseIntervalDays)));
+            s.start = LocalDate.parse(p.getProperty("start", s.start.toString()));
+            s.seed = Long.parseLong(p.getProperty("seed", String.valueOf(s.seed)));
+            s.repoDir = Path.of(p.getProperty("repoDir", Path.of("tmp", s.project.toLowerCase(Locale.ROOT)).toString()));
+            s.jiraDir = Path.of(p.getProperty("jiraDir", s.jiraDir.toString()));
+            s.coldStart = Boolean.parseBoolean(p.getProperty("coldStart", String.valueOf(s.coldStart)));
+            s.overwrite = Boolean.parseBoolean(p.getProperty("overwrite", String.valueOf(s.overwrite)));
+
+            if (s.releases < 2 || s.files < 1 || s.methodsPerFile < 1 || s.commitsPerRelease < 1
+                    || s.filesPerCommit < 1 || s.releaseIntervalDays < 3) {
+                throw new IllegalArgumentException("Parametri fuori dominio: servono almeno 2 release, 1 file/metodo/commit "
+                        + "e un intervallo tra release di almeno 3 giorni");
+            }
+            return s;
+        }
+
+        public String getProject() {
+            return project;
+        }
+
+        public Path getRepoDir() {
+            return repoDir;
+        }
+
+        public Path getJiraDir() {
+            return jiraDir;
+        }
+    }
+
+    /* ================= modello del codice ================= */
+
+    private static final class MethodModel {
+        final String name;
+        final List<String> body = new ArrayList<>();
+
+        MethodModel(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class FileModel {
+        final int id;
+        final String pkg;
+        final String className;
+        final String path;
+        final int fields;
+        final List<MethodModel> methods = new ArrayList<>();
+        int touches;
+        ObjectId blob;
+        /* range di righe [inizio, fine] dei metodi nell'ultima versione renderizzata */
+        int[][] ranges;
+
+        FileModel(int id, int fields) {
+            this.id = id;
+            this.pkg = "pkg" + (id / FILES_PER_PACKAGE);
+            this.className = "Synth" + id;
+            this.path = SOURCE_ROOT + pkg + "/" + className + ".java";
+            this.fields = fields;
+        }
+    }
+
+    private final Spec spec;
+    private final Random rnd;
+    private final List<FileModel> files = new ArrayList<>();
+    private final List<String> releaseNames = new ArrayList<>();
+    private final List<Long> releaseEpochs = new ArrayList<>();
+    private final List<JiraIssue> issues = new ArrayList<>();
+    private int commits;
+    private int smells;
+
+    public SyntheticProject(Spec spec) {
+        this.spec = spec;
+        this.rnd = new Random(spec.seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Spec spec = Spec.fromArgs(args);
+        new SyntheticProject(spec).generate();
+        LOG.log(Level.INFO, "Per usarlo: PROJECT_NAME = {0}, JIRA_MODE = offline, JIRA_SNAPSHOT_DIR = {1}, PMD_PATH = (vuoto)",
+                new Object[]{spec.project, spec.jiraDir});
+    }
+
+    public void generate() throws IOException {
+        long t0 = System.nanoTime();
+        prepareRepoDir();
+
+        for (int r = 1; r <= spec.releases; r++) {
+            releaseNames.add("1." + r + ".0");
+            releaseEpochs.add(spec.start.plusDays((long) r * spec.releaseIntervalDays).atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+        }
+
+        try (Git git = Git.init().setDirectory(spec.repoDir.toFile()).setInitialBranch(BRANCH).call()) {
+            Repository repo = git.getRepository();
+            try (ObjectInserter inserter = repo.newObjectInserter()) {
+                ObjectId head = writeHistory(repo, inserter);
+                inserter.flush();
+                RefUpdate update = repo.updateRef(Constants.R_HEADS + BRANCH);
+                update.setNewObjectId(head);
+                update.setForceUpdate(true);
+                update.update();
+            }
+            git.reset().setMode(ResetCommand.ResetType.HARD).setRef(Constants.HEAD).call();
+        } catch (GitAPIException e) {
+            throw new IOException("Errore nella creazione del repository sintetico " + spec.repoDir, e);
+        }
+
+        writeJiraSnapshot();
+
+        LOG.log(Level.INFO, "Progetto sintetico {0}: {1} release, {2} file, {3} commit, {4} ticket, {5} smell in {6} ms ({7})",
+                new Object[]{spec.project, spec.releases, files.size(), commits, issues.size(), smells,
+                        (System.nanoTime() - t0) / 1_000_000, spec.repoDir.toAbsolutePath()});
+    }
+
+    private void prepareRepoDir() throws IOException {
+        Path dir = spec.repoDir;
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> content = Files.list(dir)) {
+                if (content.findAny().isPresent()) {
+                    if (!spec.overwrite) {
+                        throw new IOException("La directory " + dir + " non è vuota (usa overwrite=true per rigenerarla)");
+                    }
+                    deleteRecursively(dir);
+                }
+            }
+        }
+        Files.createDirectories(dir);
+    }
+
+    /* ================= storia git ================= */
+
+    private ObjectId writeHistory(Repository repo, ObjectInserter inserter) throws IOException {
+        int initialFiles = Math.max(1, (int) Math.ceil(spec.files * 0.6));
+        int totalCommits = spec.releases * spec.commitsPerRelease;
+        int authors = Math.max(5, spec.files / 50);
+        int ticketSeq = 0;
+        ObjectId parent = null;
+        long intervalStart = spec.start.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+        for (int r = 0; r < spec.releases; r++) {
+            long intervalEnd = releaseEpochs.get(r);
+            // margine di un giorno dai confini: l'assegnazione commit→release non dipende dal fuso locale
+            long span = intervalEnd - intervalStart - 2 * DAY;
+            int availableAuthors = Math.min(authors, 3 + (r + 1) * authors / spec.releases);
+
+            for (int c = 0; c < spec.commitsPerRelease; c++) {
+                long when = intervalStart + DAY + span * c / spec.commitsPerRelease + rnd.nextInt((int) Math.min(Integer.MAX_VALUE, Math.max(1, span / spec.commitsPerRelease)));
+                int commitIndex = r * spec.commitsPerRelease + c;
+                String message;
+
+                if (parent == null) {
+                    for (int f = 0; f < initialFiles; f++) addFile();
+                    message = "Initial import";
+                } else {
+                    int expectedFiles = initialFiles + (int) ((long) (spec.files - initialFiles) * (commitIndex + 1) / totalCommits);
+                    boolean added = false;
+                    while (files.size() < expectedFiles) {
+                        addFile();
+                        added = true;
+                    }
+                    int touched = 1 + poisson(spec.filesPerCommit - 1.0);
+                    for (int k = 0; k < touched; k++) touch(files.get(skewed(files.size())));
+
+                    if (r > 0 && rnd.nextDouble() < spec.bugFixRatio) {
+                        String key = spec.project + "-" + (++ticketSeq);
+                        issues.add(ticketFixedAt(key, r, when));
+                        message = key + ": fix " + pick("NPE", "wrong result", "race condition", "resource leak", "off-by-one")
+                                + " in " + files.get(skewed(files.size())).className;
+                    } else if (added) {
+                        message = "Add new components to module " + files.getLast().pkg;
+                    } else {
+                        message = pick("Refactor", "Improve", "Clean up", "Optimize", "Document") + " "
+                                + files.get(skewed(files.size())).className;
+                    }
+                }
+
+                int author = skewed(availableAuthors);
+                PersonIdent ident = new PersonIdent("dev" + author, "dev" + author + "@synth.example.org",
+                        Instant.ofEpochSecond(when), ZoneOffset.UTC);
+                parent = commit(inserter, parent, ident, message);
+                commits++;
+            }
+
+            writePmdReport(releaseNames.get(r));
+            intervalStart = intervalEnd;
+        }
+        return parent;
+    }
+
+    private ObjectId commit(ObjectInserter inserter, ObjectId parent, PersonIdent ident, String message) throws IOException {
+        DirCache index = DirCache.newInCore();
+        DirCacheBuilder builder = index.builder();
+        for (FileModel f : files) {
+            if (f.blob == null || f.ranges == null) {
+                f.blob = inserter.insert(Constants.OBJ_BLOB, render(f).getBytes(StandardCharsets.UTF_8));
+            }
+            DirCacheEntry entry = new DirCacheEntry(f.path);
+            entry.setFileMode(FileMode.REGULAR_FILE);
+            entry.setObjectId(f.blob);
+            builder.add(entry);
+        }
+        builder.finish();
+
+        CommitBuilder cb = new CommitBuilder();
+        cb.setTreeId(index.writeTree(inserter));
+        if (parent != null) cb.setParentId(parent);
+        cb.setAuthor(ident);
+        cb.setCommitter(ident);
+        cb.setMessage(message + "\n");
+        return inserter.insert(cb);
+    }
+
+    private void addFile() {
+        FileModel f = new FileModel(files.size(), 2 + rnd.nextInt(5));
+        int methods = Math.max(1, spec.methodsPerFile / 2 + rnd.nextInt(spec.methodsPerFile + 1));
+        for (int m = 0; m < methods; m++) f.methods.add(newMethod(f, m));
+        files.add(f);
+    }
+
+    private MethodModel newMethod(FileModel f, int index) {
+        MethodModel m = new MethodModel("m" + index);
+        int lines = 2 + rnd.nextInt(8);
+        for (int i = 0; i < lines; i++) m.body.add(statement(f));
+        return m;
+    }
+
+    /** Riscrive alcune righe di 1-2 metodi (a volte ne aggiunge uno): churn con leggera crescita. */
+    private void touch(FileModel f) {
+        f.touches++;
+        f.ranges = null;
+        if (rnd.nextDouble() < 0.1) {
+            f.methods.add(newMethod(f, f.methods.size()));
+            return;
+        }
+        int methods = 1 + rnd.nextInt(2);
+        for (int k = 0; k < methods; k++) {
+            List<String> body = f.methods.get(rnd.nextInt(f.methods.size())).body;
+            int changed = 1 + poisson(spec.churnLines - 1.0);
+            for (int i = 0; i < changed; i++) body.set(rnd.nextInt(body.size()), statement(f));
+            int delta = rnd.nextInt(6) - 2;
+            for (int i = 0; i < delta; i++) body.add(rnd.nextInt(body.size() + 1), statement(f));
+            for (int i = 0; i > delta && body.size() > 1; i--) body.remove(rnd.nextInt(body.size()));
+        }
+    }
+
+    private String statement(FileModel f) {
+        int k = rnd.nextInt(100);
+        return switch (rnd.nextInt(8)) {
+            case 0 -> "r += a * " + k + ";";
+            case 1 -> "if (a > " + k + " && b < r) { r -= b; } else { r += " + k + "; }";
+            case 2 -> "for (int i = 0; i < b; i++) { r += i % " + (k + 2) + "; }";
+            case 3 -> "while (r > " + (k + 1) + ") { r /= 2; }";
+            case 4 -> "f" + rnd.nextInt(f.fields) + " = r + " + k + ";";
+            case 5 -> {
+                // chiamata verso un altro file già esistente: m0 non viene mai rimosso (fan-in/fan-out)
+                FileModel other = files.isEmpty() ? f : files.get(skewed(files.size()));
+                yield "r = new org.synth." + other.pkg + "." + other.className + "().m0(r, a);";
+            }
+            case 6 -> "switch (a % 3) { case 0: r++; break; case 1: r--; break; default: r = b; }";
+            default -> "r = (a > b) ? a - " + k + " : b + r;";
+        };
+    }
+
+    private String render(FileModel f) {
+        StringBuilder sb = new StringBuilder(2048);
+        sb.append("package org.synth.").append(f.pkg).append(";\n\n");
+        sb.append("public class ").append(f.className).append(" {\n");
+        int line = 3;
+        for (int i = 0; i < f.fields; i++) {
+            sb.append("    private int f").append(i).append(";\n");
+            line++;
+        }
+        f.ranges = new int[f.methods.size()][];
+        for (int m = 0; m < f.methods.size(); m++) {
+            MethodModel method = f.methods.get(m);
+            sb.append('\n');
+            line++;
+            int begin = line + 1;
+            sb.append("    public int ").append(method.name).append("(int a, int b) {\n");
+            sb.append("        int r = f").append(m % f.fields).append(";\n");
+            for (String s : method.body) sb.append("        ").append(s).append('\n');
+            sb.append("        return r;\n    }\n");
+            line += 4 + method.body.size();
+            f.ranges[m] = new int[]{begin, line};
+        }
+        return sb.append("}\n").toString();
+    }
+
+    /* ================= ticket ================= */
+
+    /** Bug chiuso dal commit di fix {@code when} nella release {@code fixIndex} (0-based): OV ≤ FV, IV ≤ OV. */
+    private JiraIssue ticketFixedAt(String key, int fixIndex, long when) {
+        int ov = Math.max(0, fixIndex - rnd.nextInt(4));
+        int iv = Math.max(0, ov - rnd.nextInt(5));
+        long ovStart = (ov == 0) ? spec.start.atStartOfDay().toEpochSecond(ZoneOffset.UTC) : releaseEpochs.get(ov - 1);
+        long created = ovStart + DAY + (long) (rnd.nextDouble() * Math.max(DAY, Math.min(when, releaseEpochs.get(ov)) - ovStart - 2 * DAY));
+        created = Math.min(created, when - 3_600L);
+        long resolved = when + 3_600L;
+
+        List<String> affected = new ArrayList<>();
+        if (rnd.nextDouble() >= spec.missingAvRatio) {
+            for (int v = iv; v < fixIndex; v++) affected.add(releaseNames.get(v));
+        }
+        return new JiraIssue(key, jiraTimestamp(created), jiraTimestamp(resolved), jiraTimestamp(resolved + DAY), affected);
+    }
+
+    private static String jiraTimestamp(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC).format(JIRA_TIMESTAMP);
+    }
+
+    private void writeJiraSnapshot() throws IOException {
+        JiraSnapshotStore store = new JiraSnapshotStore(spec.jiraDir);
+        store.writeProject(spec.project, projectJson(spec.project, releaseNames, releaseEpochs), null);
+        store.writeIssues(spec.project, issues);
+
+        if (!spec.coldStart) return;
+        // proportion a freddo legge anche i progetti di ProjectNamesEnum: nella directory sintetica
+        // si generano solo quelli mancanti, mai sopra snapshot esistenti
+        for (ProjectNamesEnum other : ProjectNamesEnum.values()) {
+            String key = other.toString();
+            if (key.equals(spec.project) || store.hasProject(key) || store.hasIssues(key)) continue;
+            writeColdStartProject(store, key);
+        }
+    }
+
+    private void writeColdStartProject(JiraSnapshotStore store, String key) throws IOException {
+        Random r = new Random(spec.seed ^ key.hashCode());
+        int releases = 15;
+        List<String> names = new ArrayList<>();
+        List<Long> epochs = new ArrayList<>();
+        for (int i = 1; i <= releases; i++) {
+            names.add("1." + i + ".0");
+            epochs.add(spec.start.plusDays((long) i * spec.releaseIntervalDays).atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+        }
+        List<JiraIssue> coldIssues = new ArrayList<>();
+        for (int i = 1; i <= 300; i++) {
+            int fv = 2 + r.nextInt(releases - 2);
+            int ov = Math.max(1, fv - r.nextInt(3));
+            int iv = Math.max(0, ov - 1 - r.nextInt(4));
+            long created = epochs.get(ov - 1) + DAY;
+            long resolved = epochs.get(fv - 1) + DAY;
+            List<String> affected = new ArrayList<>(names.subList(iv, fv));
+            coldIssues.add(new JiraIssue(key + "-" + i, jiraTimestamp(created), jiraTimestamp(resolved),
+                    jiraTimestamp(resolved + DAY), affected));
+        }
+        store.writeProject(key, projectJson(key, names, epochs), null);
+        store.writeIssues(key, coldIssues);
+    }
+
+    private static JSONObject projectJson(String key, List<String> names, List<Long> epochs) {
+        JSONArray versions = new JSONArray();
+        for (int i = 0; i < names.size(); i++) {
+            versions.put(new JSONObject()
+                    .put("id", String.valueOf(10_000 + i))
+                    .put("name", names.get(i))
+                    .put("released", true)
+                    .put("releaseDate", LocalDate.ofEpochDay(epochs.get(i) / DAY).toString()));
+        }
+        return new JSONObject().put("key", key).put("name", key + " (synthetic)").put("versions", versions);
+    }
+
+    /* ================= report PMD ================= */
+
+    /** Report nello stesso formato di PMD per lo snapshot di fine release, nel working tree (non versionato). */
+    private void writePmdReport(String releaseName) throws IOException {
+        Path root = spec.repoDir.toAbsolutePath().normalize();
+        Path reportDir = root.resolve("pmd-reports");
+        Files.createDirectories(reportDir);
+        double meanTouches = files.stream().mapToInt(f -> f.touches).average().orElse(0);
+
+        try (Writer w = Files.newBufferedWriter(reportDir.resolve("pmd-" + releaseName + ".xml"), StandardCharsets.UTF_8)) {
+            w.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            w.write("<pmd xmlns=\"http://pmd.sourceforge.net/report/2.0.0\" version=\"7.0.0\">\n");
+            for (FileModel f : files) {
+                if (f.ranges == null) render(f);
+                // più churn → più smell: lega nSmell alla bugginess come nei progetti reali
+                double lambda = spec.smellsPerFile * (f.touches + 1.0) / (meanTouches + 1.0);
+                int count = poisson(lambda);
+                if (count == 0) continue;
+                w.write("<file name=\"" + root.resolve(f.path) + "\">\n");
+                for (int i = 0; i < count; i++) {
+                    int[] range = f.ranges[rnd.nextInt(f.ranges.length)];
+                    int begin = range[0] + rnd.nextInt(range[1] - range[0] + 1);
+                    w.write("<violation beginline=\"" + begin + "\" endline=\"" + Math.min(range[1], begin + rnd.nextInt(3))
+                            + "\" begincolumn=\"9\" endcolumn=\"40\" rule=\"" + pick("UnusedAssignment", "AvoidReassigningParameters",
+                            "SwitchStmtsShouldHaveDefault", "ForLoopCanBeForeach") + "\" ruleset=\"Best Practices\" priority=\"3\">"
+                            + "Synthetic violation</violation>\n");
+                    smells++;
+                }
+                w.write("</file>\n");
+            }
+            w.write("</pmd>\n");
+        }
+    }
+
+    /* ================= distribuzioni ================= */
+
+    /** Indice in [0, n) sbilanciato verso i primi elementi: pochi file/autori concentrano la maggior parte dell'attività. */
+    private int skewed(int n) {
+        return Math.min(n - 1, (int) (n * Math.pow(rnd.nextDouble(), spec.hotspotSkew)));
+    }
+
+    private int poisson(double lambda) {
+        if (lambda <= 0) return 0;
+        double limit = Math.exp(-Math.min(lambda, 500));
+        double p = 1.0;
+        int k = 0;
+        do {
+            k++;
+            p *= rnd.nextDouble();
+        } while (p > limit);
+        return k - 1;
+    }
+
+    private String pick(String... options) {
+        return options[rnd.nextInt(options.length)];
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+                if (!p.equals(dir)) Files.delete(p);
+            }
+        }
+    }
+}
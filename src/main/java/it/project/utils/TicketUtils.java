@@ -5,34 +5,62 @@ import it.project.entities.Ticket;
 import org.eclipse.jgit.revwalk.RevCommit;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class TicketUtils {
     private TicketUtils() {}
 
-    public static void fixInconsistentTickets(List<Ticket> ticketListOG, List<Release> releaseList) {
-        List<Ticket> ticketListOT = new ArrayList<>();
+    /* Motivo per cui un ticket viene scartato da fixInconsistentTickets */
+    public enum Rejection {
+        AV_AFTER_OPENING,           // prima AV successiva alla creazione del ticket
+        MISSING_OPENING_VERSION,    // nessuna release dopo la data di creazione
+        MISSING_FIXED_VERSION,      // nessuna release dopo la data di risoluzione
+        OPENED_IN_FIRST_RELEASE,    // OV coincide con la prima release
+        OPENING_AFTER_FIX           // OV successiva a FV
+    }
+
+    /*
+     * Valida i ticket in un solo passaggio: i ticket validi restano nella lista (stesso ordine), gli altri
+     * vengono restituiti con il motivo dello scarto, nell'ordine originale.
+     */
+    public static Map<Ticket, Rejection> fixInconsistentTickets(List<Ticket> ticketListOG, List<Release> releaseList) {
+        Map<Ticket, Rejection> rejected = new LinkedHashMap<>();
+        List<Ticket> valid = new ArrayList<>(ticketListOG.size());
 
         for (Ticket ticket : ticketListOG) {
-            /* Check if affected version's list is not empty */
-            if (!ticket.getAffectedVersionsList().isEmpty() && ticket.getOpeningVersion() != null && ticket.getFixedVersion() != null) {
-                checkTicket(ticket);
-                if (ticket.getAffectedVersionsList().getFirst().getDate().isAfter(ticket.getCreationDate()))
-                    ticketListOT.add(ticket);
-            }
+            Rejection reason = validate(ticket, releaseList);
+            if (reason == null) valid.add(ticket);
+            else rejected.put(ticket, reason);
         }
 
-        for (Ticket ticket : ticketListOT) {
-            ticketListOG.remove(ticket);
+        ticketListOG.clear();
+        ticketListOG.addAll(valid);
+        return rejected;
+    }
+
+    private static Rejection validate(Ticket ticket, List<Release> releaseList) {
+        Release ov = ticket.getOpeningVersion();
+        Release fv = ticket.getFixedVersion();
+        if (ov == null) return Rejection.MISSING_OPENING_VERSION;
+        if (fv == null) return Rejection.MISSING_FIXED_VERSION;
+
+        /* Check if affected version's list is not empty */
+        if (!ticket.getAffectedVersionsList().isEmpty()) {
+            checkTicket(ticket);
+            if (ticket.getAffectedVersionsList().getFirst().getDate().isAfter(ticket.getCreationDate()))
+                return Rejection.AV_AFTER_OPENING;
         }
 
-        ticketListOG.removeIf(ticket -> ticket.getOpeningVersion() == null
-                || ticket.getFixedVersion() == null
-                || !ticket.getOpeningVersion().getDate().isAfter(releaseList.getFirst().getDate())
-                || ticket.getOpeningVersion().getDate().isAfter(ticket.getFixedVersion().getDate())
-                || ticket.getOpeningVersion().getIndex() == releaseList.getFirst().getIndex());
+        Release first = releaseList.getFirst();
+        if (!ov.getDate().isAfter(first.getDate()) || ov.getIndex() == first.getIndex())
+            return Rejection.OPENED_IN_FIRST_RELEASE;
+        if (ov.getDate().isAfter(fv.getDate()))
+            return Rejection.OPENING_AFTER_FIX;
+        return null;
     }
 
     /* Check if AV is reliable: IV is before FV || IV is before OV */
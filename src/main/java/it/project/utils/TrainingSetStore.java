@@ -0,0 +1,189 @@
+package it.project.utils;
+
+import it.project.entities.JavaClass;
+import it.project.entities.JavaMethod;
+import it.project.entities.Release;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Training set cumulativi del walk-forward senza riscrivere le feature ad ogni iterazione.
+ *
+ * Il training set dell'iterazione i contiene le release 1..i: le feature dei metodi non cambiano
+ * tra un'iterazione e l'altra, cambiano solo le label. Per questo si scrive una sola volta un
+ * dataset base con tutte le feature (una riga per metodo, segmenti per release) e, per ogni
+ * iterazione, solo il vettore delle label. Il training set i è la finestra [0, n) del base
+ * affiancata alle sue n label, con lo stesso header che avrebbe l'ARFF corrispondente.
+ *
+ * File in src/main/resources/&lt;progetto&gt;/training/BIN/:
+ *   - &lt;PROJ&gt;_training_base.bin            feature di tutte le release di training
+ *   - &lt;PROJ&gt;_training_iter_i.labels.bin   label (isBuggy) delle prime n righe del base
+ */
+public class TrainingSetStore {
+    private static final String PATH = "src/main/resources/";
+    private static final String CLASS_NAME = "isBuggy";
+    private static final String LABELS_SUFFIX = ".labels" + ColumnarDataset.EXTENSION;
+
+    private final String projectName;
+    private final Path directory;
+
+    public TrainingSetStore(String projectName) {
+        this.projectName = projectName;
+        this.directory = Path.of(PATH, projectName.toLowerCase(), "training", "BIN");
+    }
+
+    /* ================= scrittura ================= */
+
+    /**
+     * Scrive il dataset base con le feature di tutte le release che compariranno nei training set.
+     * Le label delle iterazioni precedenti si riferiscono al vecchio base e vengono cancellate: le scrive
+     * di nuovo writeLabels, iterazione per iterazione.
+     */
+    public void writeBase(List<Release> releases) throws IOException {
+        deleteLabels();
+
+        List<String> names = FileARFFGenerator.featureNames();
+        ArrayList<Attribute> attributes = new ArrayList<>();
+        for (String name : names) attributes.add(new Attribute(name));
+        Instances header = new Instances(projectName + "_training_base", attributes, 0);
+
+        int[] segments = new int[releases.size()];
+        int rows = 0;
+        for (int r = 0; r < releases.size(); r++) {
+            segments[r] = rows;
+            for (JavaClass jc : releases.get(r).getJavaClassList()) rows += jc.getMethods().size();
+        }
+
+        ColumnarDataset.write(baseFile(), header, FileARFFGenerator.featureColumns(releases), segments);
+    }
+
+    /** Scrive le label correnti delle release di training dell'iterazione (release 1..i, prefisso del base). */
+    public void writeLabels(List<Release> trainingReleases, int iteration) throws IOException {
+        List<String> classValues = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        for (Release release : trainingReleases) {
+            for (JavaClass jc : release.getJavaClassList()) {
+                for (JavaMethod jm : jc.getMethods()) {
+                    if (!classValues.contains(jm.isBuggy())) classValues.add(jm.isBuggy());
+                    labels.add(jm.isBuggy());
+                }
+            }
+        }
+
+        double[] codes = new double[labels.size()];
+        for (int r = 0; r < codes.length; r++) codes[r] = classValues.indexOf(labels.get(r));
+
+        ArrayList<Attribute> attributes = new ArrayList<>();
+        attributes.add(new Attribute(CLASS_NAME, classValues));
+        Instances header = new Instances(iterationName(iteration), attributes, 0);
+        header.setClassIndex(0);
+
+        ColumnarDataset.write(labelsFile(iteration), header, new double[][]{codes}, new int[]{0});
+    }
+
+    /* ================= lettura ================= */
+
+    public boolean hasIteration(int iteration) {
+        return baseFile().isFile() && labelsFile(iteration).isFile();
+    }
+
+    /** Iterazioni per cui esiste il vettore di label, in ordine crescente. */
+    public List<Integer> iterations() throws IOException {
+        List<Integer> iters = new ArrayList<>();
+        if (!baseFile().isFile()) return iters;
+        for (Path f : labelFiles()) {
+            Matcher m = labelsPattern().matcher(f.getFileName().toString());
+            if (m.matches()) iters.add(Integer.parseInt(m.group(1)));
+        }
+        Collections.sort(iters);
+        return iters;
+    }
+
+    /**
+     * Assembla il training set dell'iterazione: prime n righe del base + label dell'iterazione,
+     * togliendo le feature costanti nella finestra come fa la conversione ARFF.
+     */
+    public Instances load(int iteration) throws IOException {
+        Instances labels = ColumnarDataset.load(labelsFile(iteration));
+        int rows = labels.numInstances();
+        Instances base = ColumnarDataset.load(baseFile(), 0, rows);
+        if (base.numInstances() != rows) {
+            throw new IOException("Il dataset base ha " + base.numInstances() + " righe, l'iterazione "
+                    + iteration + " ne richiede " + rows);
+        }
+
+        int nFeat = base.numAttributes();
+        boolean[] varies = new boolean[nFeat];
+        for (int f = 0; f < nFeat; f++) {
+            for (int r = 1; r < rows && !varies[f]; r++) {
+                varies[f] = base.instance(r).value(f) != base.instance(0).value(f);
+            }
+        }
+
+        Attribute labelAtt = labels.attribute(0);
+        List<String> classValues = new ArrayList<>();
+        for (int v = 0; v < labelAtt.numValues(); v++) classValues.add(labelAtt.value(v));
+
+        Instances header = FileARFFGenerator.buildHeader(iterationName(iteration), varies, classValues);
+        int[] source = new int[header.numAttributes() - 1];
+        for (int a = 0; a < source.length; a++) {
+            source[a] = base.attribute(header.attribute(a).name()).index();
+        }
+
+        Instances data = new Instances(header, rows);
+        for (int r = 0; r < rows; r++) {
+            double[] values = new double[header.numAttributes()];
+            for (int a = 0; a < source.length; a++) values[a] = base.instance(r).value(source[a]);
+            values[source.length] = labels.instance(r).value(0);
+            data.add(new DenseInstance(1.0, values));
+        }
+        data.setClassIndex(header.classIndex());
+        return data;
+    }
+
+    /* ================= helpers ================= */
+
+    private Pattern labelsPattern() {
+        return Pattern.compile(Pattern.quote(projectName) + "_training_iter_(\\d+)" + Pattern.quote(LABELS_SUFFIX));
+    }
+
+    private List<Path> labelFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return files;
+        Pattern p = labelsPattern();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(directory)) {
+            for (Path f : ds) {
+                if (p.matcher(f.getFileName().toString()).matches()) files.add(f);
+            }
+        }
+        return files;
+    }
+
+    private void deleteLabels() throws IOException {
+        for (Path f : labelFiles()) Files.deleteIfExists(f);
+    }
+
+    private String iterationName(int iteration) {
+        return projectName + "_training_iter_" + iteration;
+    }
+
+    private File baseFile() {
+        return directory.resolve(projectName + "_training_base" + ColumnarDataset.EXTENSION).toFile();
+    }
+
+    private File labelsFile(int iteration) {
+        return directory.resolve(iterationName(iteration) + LABELS_SUFFIX).toFile();
+    }
+}